@@ -0,0 +1,142 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Prueba de carga de los endpoints de órdenes, en bucle cerrado: cada usuario
+ * concurrente envía una petición, espera la respuesta y envía la siguiente.
+ * Se ejecuta directamente desde el código fuente, sin compilar:
+ * <pre>
+ * java loadtest/OrderLoadTest.java [url] [post|get] [usuarios] [segundos] [calentamiento]
+ * </pre>
+ * Crea un café y un cliente de prueba y escribe una línea con el rendimiento
+ * (peticiones por segundo), los percentiles de latencia y el número de errores.
+ *
+ * @author Maria
+ * @version 1.0
+ */
+public class OrderLoadTest {
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        String scenario = args.length > 1 ? args[1] : "post";
+        int users = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+        int warmup = args.length > 4 ? Integer.parseInt(args[4]) : 5;
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newFixedThreadPool(Math.max(4, users / 8)))
+                .build();
+        int cafeId = create(client, baseUrl + "/api/cafes",
+                "{\"nombre\":\"Carga\",\"descripcion\":\"Prueba de carga\",\"precio\":1.50}");
+        int customerId = create(client, baseUrl + "/api/customers",
+                "{\"name\":\"Carga\",\"email\":\"carga-" + System.nanoTime() + "@example.com\"}");
+        String order = "{\"customer\":{\"id\":" + customerId + "},\"items\":[{\"cafe\":{\"id\":" + cafeId + "},\"cantidad\":1}]}";
+
+        HttpRequest request = scenario.equals("get")
+                ? HttpRequest.newBuilder(URI.create(baseUrl + "/api/orders?page=0&size=20")).GET().build()
+                : HttpRequest.newBuilder(URI.create(baseUrl + "/api/orders"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(order))
+                        .build();
+
+        run(client, request, users, warmup);
+        Result result = run(client, request, users, seconds);
+        System.out.printf(Locale.ROOT,
+                "scenario=%s users=%d seconds=%d requests=%d throughput=%.1f/s p50=%.1fms p95=%.1fms p99=%.1fms errors=%d%n",
+                scenario, users, seconds, result.latencies.length, result.latencies.length / (double) seconds,
+                result.percentile(50), result.percentile(95), result.percentile(99), result.errors);
+        System.exit(0);
+    }
+
+    private static Result run(HttpClient client, HttpRequest request, int users, int seconds) throws Exception {
+        if (seconds <= 0) {
+            return new Result(new long[0], 0);
+        }
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        ExecutorService workers = Executors.newFixedThreadPool(users);
+        List<Future<Result>> futures = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            futures.add(workers.submit(() -> {
+                long[] latencies = new long[1024];
+                int count = 0;
+                int errors = 0;
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() >= 400) {
+                            errors++;
+                            continue;
+                        }
+                    } catch (Exception e) {
+                        errors++;
+                        continue;
+                    }
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = System.nanoTime() - start;
+                }
+                return new Result(Arrays.copyOf(latencies, count), errors);
+            }));
+        }
+        long[] all = new long[0];
+        int errors = 0;
+        for (Future<Result> future : futures) {
+            Result partial = future.get();
+            int offset = all.length;
+            all = Arrays.copyOf(all, offset + partial.latencies.length);
+            System.arraycopy(partial.latencies, 0, all, offset, partial.latencies.length);
+            errors += partial.errors;
+        }
+        workers.shutdown();
+        Arrays.sort(all);
+        return new Result(all, errors);
+    }
+
+    private static int create(HttpClient client, String url, String json) throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = ID.matcher(response.body());
+        if (response.statusCode() >= 400 || !matcher.find()) {
+            throw new IllegalStateException("No se pudo crear " + url + ": " + response.body());
+        }
+        return Integer.parseInt(matcher.group(1));
+    }
+
+    private static final class Result {
+        private final long[] latencies;
+        private final int errors;
+
+        Result(long[] latencies, int errors) {
+            this.latencies = latencies;
+            this.errors = errors;
+        }
+
+        double percentile(int p) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p / 100.0 * latencies.length) - 1;
+            return latencies[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
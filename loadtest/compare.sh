@@ -0,0 +1,64 @@
+#!/bin/sh
+# Compara el rendimiento de POST y GET /api/orders atendiendo las peticiones con hilos
+# de plataforma (Tomcat, 200 hilos) y con hilos virtuales (perfil virtual-threads, JDK 21).
+# Ambos modos usan el mismo tamaño de pool de conexiones, de modo que la diferencia
+# se debe solo al modelo de hilos. El modo virtual añade el perfil con
+# --spring.profiles.include=virtual-threads, igual que "mvn -Pjdk21 spring-boot:run",
+# y se comprueba en el log de arranque que los perfiles activos son los esperados.
+#
+# Uso: loadtest/compare.sh [usuarios] [segundos]
+# Variables de entorno:
+#   POOL      Tamaño del pool de conexiones en ambos modos (por defecto 50)
+#   PORT      Puerto de la aplicación (por defecto 8089)
+#   APP_ARGS  Argumentos adicionales de la aplicación, p. ej. la URL de la base de datos
+#   ROUNDS    Rondas de medición (por defecto 3); los modos se alternan en cada ronda para que
+#             la carga de la máquina afecte a ambos por igual, y se comparan las medianas
+set -e
+cd "$(dirname "$0")/.."
+
+USERS=${1:-400}
+DURATION=${2:-30}
+POOL=${POOL:-50}
+PORT=${PORT:-8089}
+ROUNDS=${ROUNDS:-3}
+
+JAVA_MAJOR=$(java -XshowSettings:properties -version 2>&1 | awk -F'= ' '/java.specification.version/ {print $2}')
+if [ "$JAVA_MAJOR" -ge 21 ]; then
+    MAVEN_PROFILE=-Pjdk21
+    MODES="platform virtual"
+else
+    MAVEN_PROFILE=
+    MODES=platform
+    echo "JDK $JAVA_MAJOR: solo se mide el modo de hilos de plataforma (los hilos virtuales requieren JDK 21)"
+fi
+
+mvn -B -q $MAVEN_PROFILE package -DskipTests
+JAR=$(ls target/cafe-*.jar | grep -v '\.original$' | head -1)
+
+for ROUND in $(seq 1 "$ROUNDS"); do
+    for MODE in $MODES; do
+        if [ "$MODE" = virtual ]; then MODE_ARGS=--spring.profiles.include=virtual-threads; else MODE_ARGS=; fi
+        # shellcheck disable=SC2086
+        java -jar "$JAR" --server.port="$PORT" $MODE_ARGS \
+            --spring.datasource.hikari.maximum-pool-size="$POOL" $APP_ARGS > "target/loadtest-$MODE.log" 2>&1 &
+        APP=$!
+        for _ in $(seq 1 120); do
+            curl -sf "http://localhost:$PORT/actuator/health" > /dev/null && break
+            sleep 1
+        done
+        ACTIVE=$(grep -m1 -E 'profiles? (is|are) active|No active profile set' "target/loadtest-$MODE.log" || true)
+        if echo "$ACTIVE" | grep -q virtual-threads; then ACTIVE_MODE=virtual; else ACTIVE_MODE=platform; fi
+        if [ "$ACTIVE_MODE" != "$MODE" ]; then
+            echo "Perfiles inesperados en modo $MODE: $ACTIVE" >&2
+            kill "$APP"
+            exit 1
+        fi
+        echo "round=$ROUND mode=$MODE java=$JAVA_MAJOR ${ACTIVE#*: }"
+        for SCENARIO in post get; do
+            printf "round=%s mode=%s pool=%s " "$ROUND" "$MODE" "$POOL"
+            java loadtest/OrderLoadTest.java "http://localhost:$PORT" "$SCENARIO" "$USERS" "$DURATION"
+        done
+        kill "$APP"
+        wait "$APP" || true
+    done
+done
@@ -0,0 +1,93 @@
+package proyecto.cafe.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import proyecto.cafe.CafeApplication;
+import proyecto.cafe.entity.Cafe;
+import proyecto.cafe.entity.Customer;
+import proyecto.cafe.entity.Order;
+import proyecto.cafe.entity.OrderItem;
+import proyecto.cafe.money.Money;
+import proyecto.cafe.service.CafeService;
+import proyecto.cafe.service.CustomerService;
+import proyecto.cafe.service.OrderBatchService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utilidades para arrancar la aplicación sobre H2 embebida dentro de los benchmarks
+ * y cargar un conjunto de datos de prueba reproducible.
+ * 
+ * @author Maria
+ * @version 1.0
+ */
+final class BenchmarkApplication {
+
+    static final int CAFES = 50;
+    static final int CUSTOMERS = 200;
+    static final int ITEMS_PER_ORDER = 3;
+
+    private BenchmarkApplication() {
+    }
+
+    /**
+     * Arranca el contexto de Spring sin servidor web, sobre una base de datos H2 en memoria.
+     * @return Contexto de la aplicación
+     */
+    static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(CafeApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+    }
+
+    /**
+     * Carga cafés, clientes y el número de órdenes indicado.
+     * @param context Contexto de la aplicación
+     * @param orders Número de órdenes a generar
+     */
+    static void seed(ConfigurableApplicationContext context, int orders) {
+        CafeService cafeService = context.getBean(CafeService.class);
+        CustomerService customerService = context.getBean(CustomerService.class);
+        for (int i = 0; i < CAFES; i++) {
+            cafeService.crearCafe(new Cafe(null, "Café " + i, "Descripción del café " + i, Money.ofCents(100 + (i % 7) * 35)));
+        }
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customerService.createCustomer(new Customer(null, "Cliente " + i, "cliente" + i + "@cafe.es"));
+        }
+
+        OrderBatchService batchService = context.getBean(OrderBatchService.class);
+        List<Order> batch = new ArrayList<>();
+        for (int i = 0; i < orders; i++) {
+            batch.add(newOrder(i));
+            if (batch.size() == 1000) {
+                batchService.importOrders(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            batchService.importOrders(batch);
+        }
+    }
+
+    /**
+     * Construye una orden sin persistir que referencia cafés y clientes por ID.
+     * @param seed Valor que determina el cliente y los cafés elegidos
+     * @return Orden nueva
+     */
+    static Order newOrder(int seed) {
+        List<OrderItem> items = new ArrayList<>(ITEMS_PER_ORDER);
+        for (int j = 0; j < ITEMS_PER_ORDER; j++) {
+            items.add(new OrderItem(null, new Cafe((seed + j) % CAFES + 1, null, null, null), j + 1, null));
+        }
+        return new Order(null, new Customer(seed % CUSTOMERS + 1, null, null), items);
+    }
+}
@@ -0,0 +1,70 @@
+package proyecto.cafe.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import proyecto.cafe.embedded.OrderJournal;
+import proyecto.cafe.entity.Order;
+import proyecto.cafe.entity.OrderItem;
+import proyecto.cafe.money.Money;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark de las escrituras en el diario de órdenes ({@link OrderJournal#recordCreated}),
+ * con tantos hilos escribiendo a la vez como peticiones concurrentes atiende Tomcat, para medir
+ * el efecto del group commit. Con {@code sync=true} cada operación espera a que su registro
+ * esté en disco, así que el rendimiento depende de cuántas escrituras se agrupan en cada {@code force()}.
+ * Para medir en un solo núcleo se fija la JVM con {@code taskset -c 0 mvn -Pbenchmark verify ...};
+ * los procesos de JMH heredan la afinidad.
+ *
+ * @author Maria
+ * @version 1.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(128)
+public class OrderJournalBenchmark {
+
+    @Param({"true", "false"})
+    public boolean sync;
+
+    private Path directory;
+    private OrderJournal journal;
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("order-journal");
+        journal = new OrderJournal(directory, 64 * 1024 * 1024, sync);
+        journal.open();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public void recordCreated() {
+        int id = sequence.incrementAndGet();
+        Order order = BenchmarkApplication.newOrder(id);
+        order.setId(id);
+        for (OrderItem item : order.getItems()) {
+            item.setPrecio(Money.ofCents(100 + item.getCafe().getId() * 5L));
+        }
+        order.calculateTotal();
+        journal.recordCreated(List.of(order));
+    }
+}
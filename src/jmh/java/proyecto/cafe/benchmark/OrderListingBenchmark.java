@@ -0,0 +1,135 @@
+package proyecto.cafe.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import proyecto.cafe.dto.CursorPage;
+import proyecto.cafe.dto.OrderListItem;
+import proyecto.cafe.entity.Order;
+import proyecto.cafe.repository.OrderRepository;
+import proyecto.cafe.service.OrderListingService;
+import proyecto.cafe.service.OrderService;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark del listado paginado de órdenes (por desplazamiento y por cursor)
+ * y de la serialización JSON de una página de órdenes.
+ * Compara también la respuesta completa de {@code GET /api/orders} construida con entidades
+ * y {@code Page<Order>} ({@code requestEntities}), como la servía la versión anterior del listado,
+ * con la proyección ligera escrita con {@link OrderListingService} ({@code requestLean}); el perfil
+ * {@code gc} muestra los bytes asignados por petición y al arrancar se escriben los bytes JSON
+ * por orden de cada formato.
+ * 
+ * @author Maria
+ * @version 1.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrderListingBenchmark {
+
+    private static final int ORDERS = 20_000;
+
+    @Param({"20"})
+    public int size;
+
+    @Param({"0", "500"})
+    public int page;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private OrderRepository orderRepository;
+    private JdbcTemplate jdbcTemplate;
+    private ObjectMapper objectMapper;
+    private Page<Order> serializedPage;
+    private OrderListingService orderListingService;
+    private Page<OrderListItem> leanPage;
+    private String cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.seed(context, ORDERS);
+        orderService = context.getBean(OrderService.class);
+        orderRepository = context.getBean(OrderRepository.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        serializedPage = entityPage();
+        orderListingService = context.getBean(OrderListingService.class);
+        leanPage = orderListingService.getPage(page, size);
+        try {
+            System.out.printf("Bytes JSON por orden: entidades=%d, ligero=%d%n",
+                    objectMapper.writeValueAsBytes(serializedPage).length / size,
+                    serializeLeanPage().length / size);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // Cursor equivalente a la página indicada, para comparar la búsqueda por clave con el OFFSET
+        cursor = "";
+        for (int i = 0; i < page; i++) {
+            cursor = orderService.getOrdersAfter(cursor, size).getNextCursor();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<OrderListItem> listByOffset() {
+        return orderListingService.getPage(page, size);
+    }
+
+    @Benchmark
+    public CursorPage<Order> listByCursor() {
+        return orderService.getOrdersAfter(cursor, size);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(serializedPage);
+    }
+
+    @Benchmark
+    public byte[] serializeLeanPage() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        orderListingService.write(leanPage, out);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] requestEntities() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(entityPage());
+    }
+
+    @Benchmark
+    public byte[] requestLean() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        orderListingService.write(orderListingService.getPage(page, size), out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Página de entidades con cliente, items y cafés, cargada con los IDs de la página y una consulta con fetch join.
+     * Los IDs y el total se leen aquí con SQL, ya que la aplicación no tiene consulta propia para ello.
+     */
+    private Page<Order> entityPage() {
+        PageRequest pageable = PageRequest.of(page, size);
+        List<Integer> ids = jdbcTemplate.queryForList("SELECT id FROM orders ORDER BY id LIMIT ? OFFSET ?",
+                Integer.class, size, pageable.getOffset());
+        Long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Long.class);
+        return new PageImpl<>(orderRepository.findAllWithItemsByIdIn(ids), pageable, total);
+    }
+}
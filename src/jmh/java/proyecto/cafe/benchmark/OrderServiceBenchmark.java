@@ -0,0 +1,42 @@
+package proyecto.cafe.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import proyecto.cafe.entity.Order;
+import proyecto.cafe.service.OrderService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de la creación de órdenes ({@link OrderService#crearOrder(Order)})
+ * contra una base de datos H2 embebida.
+ * 
+ * @author Maria
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OrderServiceBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private int sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.seed(context, 0);
+        orderService = context.getBean(OrderService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Order crearOrder() {
+        return orderService.crearOrder(BenchmarkApplication.newOrder(sequence++));
+    }
+}
@@ -0,0 +1,73 @@
+package proyecto.cafe.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import proyecto.cafe.entity.Cafe;
+import proyecto.cafe.entity.Order;
+import proyecto.cafe.entity.OrderItem;
+import proyecto.cafe.money.Money;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark del cálculo del total de una orden ({@link Order#calculateTotal()}).
+ * Compara la suma en céntimos con la implementación anterior, que recorría los items
+ * con un stream multiplicando precios {@code Double} por cantidades {@code Integer}.
+ * El perfil {@code gc} del benchmark muestra además los bytes asignados por operación.
+ * 
+ * @author Maria
+ * @version 1.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrderTotalBenchmark {
+
+    @Param({"1", "12", "100"})
+    public int items;
+
+    private Order order;
+
+    private List<LegacyItem> legacyItems;
+
+    @Setup
+    public void setUp() {
+        List<OrderItem> list = new ArrayList<>(items);
+        legacyItems = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            long cents = 100 + (i % 7) * 35;
+            Money precio = Money.ofCents(cents);
+            list.add(new OrderItem(i, new Cafe(i, "Café " + i, "Descripción", precio), i % 3 + 1, precio));
+            legacyItems.add(new LegacyItem(cents / 100.0, i % 3 + 1));
+        }
+        order = new Order(1, null, list);
+    }
+
+    @Benchmark
+    public Money calculateTotal() {
+        order.calculateTotal();
+        return order.getTotal();
+    }
+
+    @Benchmark
+    public Double legacyDoubleTotal() {
+        return legacyItems.stream()
+            .filter(item -> item.precio != null)
+            .mapToDouble(item -> item.precio * item.cantidad)
+            .sum();
+    }
+
+    /**
+     * Item con los tipos de la implementación anterior ({@code Double} e {@code Integer}).
+     */
+    private static final class LegacyItem {
+        private final Double precio;
+        private final Integer cantidad;
+
+        LegacyItem(Double precio, Integer cantidad) {
+            this.precio = precio;
+            this.cantidad = cantidad;
+        }
+    }
+}
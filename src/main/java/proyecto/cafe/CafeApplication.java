@@ -2,6 +2,7 @@ package proyecto.cafe;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Clase principal de la aplicación Café.
@@ -13,11 +14,13 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * - Gestión de órdenes
  * - Cálculo automático de totales
  * - Validaciones de datos
- * - Almacenamiento en memoria
+ * - Archivo periódico de órdenes antiguas
+ * - Almacenamiento en MySQL o, con el perfil embedded, en memoria con instantáneas en disco
  * @author Maria
- * @version 1.0
+ * @version 1.2
  */
 @SpringBootApplication
+@EnableScheduling
 public class CafeApplication {
 
 	/**
@@ -0,0 +1,229 @@
+package proyecto.cafe.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import proyecto.cafe.entity.Cafe;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Caché en memoria de lectura directa (read-through) para el catálogo de cafés.
+ * Mantiene un número acotado de cafés indexados por ID con política LRU y una
+ * instantánea del menú completo. Se invalida desde {@code CafeService} cada vez
+ * que el catálogo cambia.
+ * 
+ * Para evitar que una lectura concurrente vuelva a guardar datos antiguos tras
+ * una invalidación, cada carga comprueba que la generación del catálogo no haya
+ * cambiado antes de almacenar el resultado.
+ * 
+ * @author Maria
+ * @version 1.1
+ */
+@Component
+public class CafeCache {
+
+    /** Distingue las versiones de esta ejecución de las de ejecuciones anteriores. */
+    private final String instance = Long.toString(System.currentTimeMillis(), 36);
+
+    private final int maxSize;
+    private final Map<Integer, Cafe> cafes;
+    private volatile List<Cafe> menu;
+    private volatile long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Constructor que configura el tamaño máximo de la caché.
+     * @param maxSize Número máximo de cafés almacenados individualmente
+     */
+    public CafeCache(@Value("${cafe.cache.max-size:1000}") int maxSize) {
+        this.maxSize = maxSize;
+        this.cafes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Cafe> eldest) {
+                if (size() > CafeCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Obtiene un café por su ID, cargándolo con el loader si no está en caché.
+     * 
+     * @param id ID del café
+     * @param loader Función que carga el café desde la base de datos
+     * @return Optional que puede contener el café si existe
+     */
+    public Optional<Cafe> get(Integer id, Function<Integer, Optional<Cafe>> loader) {
+        synchronized (cafes) {
+            Cafe cafe = cafes.get(id);
+            if (cafe != null) {
+                hits.incrementAndGet();
+                return Optional.of(cafe);
+            }
+        }
+        misses.incrementAndGet();
+        long expected = generation;
+        Optional<Cafe> loaded = loader.apply(id);
+        loaded.ifPresent(cafe -> put(cafe, expected));
+        return loaded;
+    }
+
+    /**
+     * Obtiene varios cafés por sus IDs. Los que no están en caché se cargan
+     * todos juntos con una única llamada al loader.
+     * 
+     * @param ids IDs de los cafés
+     * @param loader Función que carga desde la base de datos los IDs no encontrados
+     * @return Mapa de cafés encontrados indexado por ID
+     */
+    public Map<Integer, Cafe> getAll(Collection<Integer> ids, Function<Collection<Integer>, Iterable<Cafe>> loader) {
+        Map<Integer, Cafe> result = new LinkedHashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        synchronized (cafes) {
+            for (Integer id : ids) {
+                Cafe cafe = cafes.get(id);
+                if (cafe != null) {
+                    result.put(id, cafe);
+                } else {
+                    missing.add(id);
+                }
+            }
+        }
+        hits.addAndGet(result.size());
+        if (!missing.isEmpty()) {
+            misses.addAndGet(missing.size());
+            long expected = generation;
+            for (Cafe cafe : loader.apply(missing)) {
+                result.put(cafe.getId(), cafe);
+                put(cafe, expected);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Obtiene la instantánea del menú completo, cargándola si no existe.
+     * 
+     * @param loader Función que carga todos los cafés desde la base de datos
+     * @return Lista inmutable con todos los cafés
+     */
+    public List<Cafe> getMenu(Supplier<List<Cafe>> loader) {
+        List<Cafe> current = menu;
+        if (current != null) {
+            hits.incrementAndGet();
+            return current;
+        }
+        misses.incrementAndGet();
+        long expected = generation;
+        List<Cafe> loaded = Collections.unmodifiableList(new ArrayList<>(loader.get()));
+        synchronized (cafes) {
+            if (generation == expected) {
+                menu = loaded;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Invalida un café y la instantánea del menú. Si hay una transacción activa,
+     * la invalidación se repite tras el commit para descartar lecturas concurrentes
+     * que hayan cargado los datos anteriores.
+     * 
+     * @param id ID del café modificado, o null si solo cambia el menú
+     */
+    public void invalidate(Integer id) {
+        evict(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(id);
+                }
+            });
+        }
+    }
+
+    /**
+     * Invalida todo el contenido de la caché. Si hay una transacción activa,
+     * la invalidación se repite tras el commit, igual que en {@link #invalidate(Integer)}.
+     */
+    public void invalidateAll() {
+        clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clear();
+                }
+            });
+        }
+    }
+
+    private void clear() {
+        synchronized (cafes) {
+            generation++;
+            cafes.clear();
+            menu = null;
+        }
+    }
+
+    /**
+     * Obtiene la versión actual del catálogo. Cambia cada vez que se invalida la caché,
+     * es decir, con cada alta, modificación o baja de un café.
+     * @return Versión del catálogo, única también entre reinicios de la aplicación
+     */
+    public String getVersion() {
+        return instance + "-" + generation;
+    }
+
+    /**
+     * Obtiene los contadores de uso de la caché.
+     * @return Mapa con aciertos, fallos, desalojos y tamaño actual
+     */
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        synchronized (cafes) {
+            stats.put("size", (long) cafes.size());
+        }
+        stats.put("menuCached", menu != null ? 1L : 0L);
+        return stats;
+    }
+
+    private void put(Cafe cafe, long expected) {
+        synchronized (cafes) {
+            if (generation == expected) {
+                cafes.put(cafe.getId(), cafe);
+            }
+        }
+    }
+
+    private void evict(Integer id) {
+        synchronized (cafes) {
+            generation++;
+            if (id != null) {
+                cafes.remove(id);
+            }
+            menu = null;
+        }
+    }
+}
@@ -3,13 +3,20 @@ package proyecto.cafe.controller;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import proyecto.cafe.dto.MenuPayload;
+import proyecto.cafe.dto.RepriceRequest;
 import proyecto.cafe.entity.Cafe;
 import proyecto.cafe.service.CafeService;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controlador REST que maneja las operaciones relacionadas con cafés.
@@ -18,10 +25,13 @@ import java.util.List;
  * - GET /cafes: Obtener todos los cafés
  * - POST /cafes: Crear un nuevo café
  * - PUT /cafes/{id}: Actualizar un café existente
- * - PATCH /cafes/{id}: Actualizar parcialmente un café
+ * - PATCH /cafes/{id}: Actualizar parcialmente un café (requiere su versión; 409 si ha cambiado)
+ * - POST /cafes/reprice: Cambiar el precio de varios cafés (por IDs o patrón de nombre; porcentaje o importe)
  * - DELETE /cafes/{id}: Eliminar un café
+ * - GET /cafes/cache/stats: Obtener las estadísticas de la caché de cafés
+ * - GET /cafes/menu: Obtener el menú compacto para el formulario de órdenes (con ETag)
  * @author Maria
- * @version 1.5
+ * @version 1.8
  */
 @RestController
 @RequestMapping("/api/cafes")
@@ -47,6 +57,43 @@ public class CafeController {
         }
     }
 
+    /**
+     * Obtiene el menú compacto (ID, nombre y precio) para el formulario de órdenes.
+     * La respuesta lleva un ETag con la versión del catálogo; si el cliente ya tiene
+     * esa versión se responde 304 sin consultar la caché ni serializar nada.
+     * @param request Petición, para la comprobación de If-None-Match
+     * @return ResponseEntity con el menú en JSON, o null si se respondió 304
+     */
+    @GetMapping("/menu")
+    public ResponseEntity<byte[]> getMenu(WebRequest request) {
+        try {
+            if (request.checkNotModified(etag(cafeService.getMenuVersion()))) {
+                return null;
+            }
+            MenuPayload menu = cafeService.getMenuPayload();
+            return ResponseEntity.ok()
+                    .eTag(etag(menu.getVersion()))
+                    .cacheControl(CacheControl.noCache())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(menu.getBody());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    private static String etag(String version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Obtiene los contadores de la caché del catálogo de cafés.
+     * @return ResponseEntity con aciertos, fallos, desalojos y tamaño de la caché
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Long>> getCacheStats() {
+        return ResponseEntity.ok(cafeService.getCacheStats());
+    }
+
     /**
      * Obtiene un café por su ID.
      * @param id ID del café a obtener
@@ -95,16 +142,71 @@ public class CafeController {
             if (cafe == null || cafe.getNombre() == null || cafe.getPrecio() == null) {
                 return ResponseEntity.badRequest().body("El café debe incluir nombre y precio");
             }
+            try {
+                cafeService.validarCafe(cafe, false);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
             cafe.setId(id);
             Cafe updatedCafe = cafeService.actualizarCafe(cafe);
             return ResponseEntity.ok(updatedCafe);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("El café ha sido modificado por otro usuario");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error al actualizar el café: " + e.getMessage());
         }
     }
 
+    /**
+     * Actualiza parcialmente un café: solo se modifican los campos incluidos.
+     * La versión es obligatoria y debe coincidir con la actual del café.
+     * @param id ID del café a actualizar
+     * @param changes Campos a modificar y versión leída
+     * @return ResponseEntity con el ID y la nueva versión del café o mensaje de error
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchCafe(@PathVariable Integer id, @RequestBody Cafe changes) {
+        try {
+            if (changes == null || changes.getVersion() == null) {
+                return ResponseEntity.badRequest().body("Debe indicarse la versión del café");
+            }
+            try {
+                cafeService.validarCafe(changes, true);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+            long version = cafeService.patchCafe(id, changes);
+            return ResponseEntity.ok(Map.of("id", id, "version", version));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("El café ha sido modificado por otro usuario");
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error al actualizar el café: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Cambia el precio de varios cafés en una sola operación.
+     * @param request Cafés a modificar (IDs o patrón de nombre) y cambio (porcentaje o importe)
+     * @return ResponseEntity con el número de cafés modificados o mensaje de error
+     */
+    @PostMapping("/reprice")
+    public ResponseEntity<?> repriceCafes(@RequestBody RepriceRequest request) {
+        try {
+            if (request == null) {
+                return ResponseEntity.badRequest().body("Debe indicarse la selección de cafés y el cambio de precio");
+            }
+            return ResponseEntity.ok(Map.of("updated", cafeService.repriceCafes(request)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error al cambiar los precios: " + e.getMessage());
+        }
+    }
+
     /**
      * Elimina un café por su ID.
      * @param id ID del café a eliminar
@@ -1,15 +1,18 @@
 package proyecto.cafe.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
 import proyecto.cafe.entity.Customer;
 import proyecto.cafe.service.CustomerService;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controlador REST que maneja las operaciones relacionadas con clientes.
@@ -18,15 +21,18 @@ import java.util.List;
  * - GET /customers: Obtener todos los clientes
  * - POST /customers: Crear un nuevo cliente
  * - PUT /customers/{id}: Actualizar un cliente existente
+ * - PATCH /customers/{id}: Actualizar parcialmente un cliente (requiere su versión; 409 si ha cambiado)
  * - DELETE /customers/{id}: Eliminar un cliente
  * - GET /customers/{id}: Obtener un cliente por su ID
+ * - GET /customers/search?q=&limit=: Buscar clientes por nombre o email
  * @author Maria
- * @version 1.5
+ * @version 1.6
  */
 @RestController
 @RequestMapping("/api/customers")
 @CrossOrigin(origins = "*")
 public class CustomerController {
+    private static final int MAX_SEARCH_LIMIT = 50;
 
     @Autowired
     private CustomerService customerService;
@@ -49,6 +55,27 @@ public class CustomerController {
         }
     }
 
+    /**
+     * Busca clientes por nombre o email para autocompletado.
+     * @param q Texto a buscar
+     * @param limit Número máximo de resultados (entre 1 y 50)
+     * @return ResponseEntity con los clientes encontrados o mensaje de error
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchCustomers(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+                return ResponseEntity.badRequest().body("El límite debe estar entre 1 y " + MAX_SEARCH_LIMIT);
+            }
+            List<Customer> customers = customerService.searchCustomers(q, limit);
+            return ResponseEntity.ok(customers);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error al buscar clientes: " + e.getMessage());
+        }
+    }
+
     /**
      * Obtiene un cliente por su ID.
      * @param id ID del cliente a obtener
@@ -102,6 +129,41 @@ public class CustomerController {
             return ResponseEntity.ok(updatedCustomer);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("El cliente ha sido modificado por otro usuario");
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error al actualizar el cliente: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Actualiza parcialmente un cliente: solo se modifican los campos incluidos.
+     * La versión es obligatoria y debe coincidir con la actual del cliente.
+     * @param id ID del cliente a actualizar
+     * @param changes Campos a modificar y versión leída
+     * @return ResponseEntity con el ID y la nueva versión del cliente o mensaje de error
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchCustomer(@PathVariable Integer id, @RequestBody Customer changes) {
+        try {
+            if (changes == null || changes.getVersion() == null) {
+                return ResponseEntity.badRequest().body("Debe indicarse la versión del cliente");
+            }
+            if (changes.getName() == null && changes.getEmail() == null) {
+                return ResponseEntity.badRequest().body("Debe indicarse al menos un campo a modificar");
+            }
+            if ((changes.getName() != null && changes.getName().trim().isEmpty())
+                    || (changes.getEmail() != null && changes.getEmail().trim().isEmpty())) {
+                return ResponseEntity.badRequest().body("Los campos indicados no pueden estar vacíos");
+            }
+            long version = customerService.patchCustomer(id, changes);
+            return ResponseEntity.ok(Map.of("id", id, "version", version));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("El cliente ha sido modificado por otro usuario");
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("El email ya está registrado");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error al actualizar el cliente: " + e.getMessage());
         }
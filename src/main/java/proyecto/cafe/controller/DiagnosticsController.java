@@ -0,0 +1,75 @@
+package proyecto.cafe.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import proyecto.cafe.dto.QueryPlan;
+import proyecto.cafe.metrics.QueryTraceFilter;
+import proyecto.cafe.service.QueryPlanService;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controlador REST con herramientas de diagnóstico.
+ * Endpoints disponibles:
+ * - GET /diagnostics/query-plans: Obtener el plan de ejecución de las consultas de órdenes
+ * - GET /diagnostics/query-trace: Consultar la proporción de peticiones cuyas sentencias SQL se trazan
+ * - PUT /diagnostics/query-trace?sampleRate=: Cambiar esa proporción en caliente
+ * @author Maria
+ * @version 1.1
+ */
+@RestController
+@RequestMapping("/api/diagnostics")
+@CrossOrigin(origins = "*")
+public class DiagnosticsController {
+
+    @Autowired
+    private QueryPlanService queryPlanService;
+
+    @Autowired
+    private QueryTraceFilter queryTraceFilter;
+
+    /**
+     * Obtiene el plan de ejecución (EXPLAIN) de cada consulta del repositorio de órdenes.
+     * @param flaggedOnly Si es true, devuelve solo las consultas señaladas (recorridos completos no esperados o errores)
+     * @return ResponseEntity con los planes de ejecución o mensaje de error
+     */
+    @GetMapping("/query-plans")
+    public ResponseEntity<?> getQueryPlans(@RequestParam(defaultValue = "false") boolean flaggedOnly) {
+        try {
+            List<QueryPlan> plans = queryPlanService.explainOrderQueries();
+            if (flaggedOnly) {
+                plans.removeIf(plan -> !plan.isFlagged());
+            }
+            return ResponseEntity.ok(plans);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error al analizar las consultas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene la proporción de peticiones cuyas sentencias SQL se trazan en el log.
+     * @return ResponseEntity con la proporción actual
+     */
+    @GetMapping("/query-trace")
+    public ResponseEntity<?> getQueryTrace() {
+        return ResponseEntity.ok(Map.of("sampleRate", queryTraceFilter.getSampleRate()));
+    }
+
+    /**
+     * Cambia la proporción de peticiones cuyas sentencias SQL se trazan en el log.
+     * @param sampleRate Proporción entre 0 (ninguna) y 1 (todas)
+     * @return ResponseEntity con la nueva proporción o mensaje de error
+     */
+    @PutMapping("/query-trace")
+    public ResponseEntity<?> setQueryTrace(@RequestParam double sampleRate) {
+        try {
+            queryTraceFilter.setSampleRate(sampleRate);
+            return ResponseEntity.ok(Map.of("sampleRate", queryTraceFilter.getSampleRate()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
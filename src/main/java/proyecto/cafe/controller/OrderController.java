@@ -1,54 +1,171 @@
 package proyecto.cafe.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import proyecto.cafe.dto.CursorPage;
+import proyecto.cafe.dto.IntakeTicket;
+import proyecto.cafe.dto.OrderListItem;
+import proyecto.cafe.dto.OrderSummary;
+import proyecto.cafe.dto.StoredResponse;
 import proyecto.cafe.entity.Customer;
 import proyecto.cafe.entity.Order;
+import proyecto.cafe.service.IdempotencyService;
+import proyecto.cafe.service.OrderArchiveService;
+import proyecto.cafe.service.OrderBatchService;
+import proyecto.cafe.service.OrderExportService;
+import proyecto.cafe.service.OrderIntakeService;
+import proyecto.cafe.service.OrderListingService;
 import proyecto.cafe.service.OrderService;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * Controlador REST que maneja las operaciones relacionadas con órdenes.
  * Proporciona endpoints para realizar operaciones CRUD sobre la entidad Order.
  * Endpoints disponibles:
  * - GET /orders: Obtener todas las órdenes
- * - POST /orders: Crear una nueva orden
- * - DELETE /orders/{id}: Eliminar una orden
+ * - GET /orders?after={cursor}: Obtener órdenes paginadas por cursor
+ * - POST /orders: Crear una nueva orden (o encolarla, si la recepción asíncrona está activa)
+ * - GET /orders/intake/{ticketId}: Consultar el estado de una orden encolada
+ * - POST /orders/batch: Importar un lote de órdenes (JSON o NDJSON)
+ * - GET /orders/export: Exportar órdenes en streaming (NDJSON o CSV)
+ * - DELETE /orders/{id}: Eliminar una orden (no se permite si está archivada)
+ * - POST /orders/archive: Archivar ahora las órdenes anteriores al horizonte configurado
  * - GET /orders/{id}: Obtener una orden por su ID
  * - GET /orders/customer/{customerId}: Obtener órdenes por cliente
+ * - GET /orders/customer/{customerId}/history: Obtener el historial resumido y paginado de un cliente
  * @author Maria
- * @version 1.5
+ * @version 1.11
  */
 @RestController
 @RequestMapping("/api/orders")
 @CrossOrigin(origins = "*")
 public class OrderController {
+    private static final String NDJSON = "application/x-ndjson";
+
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderBatchService orderBatchService;
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private OrderIntakeService orderIntakeService;
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private OrderListingService orderListingService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
-     * Obtiene todas las órdenes registradas.
+     * Obtiene todas las órdenes registradas, ordenadas por ID.
+     * Cada orden incluye solo el ID y nombre del cliente y, por item, el café, la cantidad y el precio;
+     * el detalle completo se obtiene en /orders/{id}.
      * @param page Número de página (comienza en 0)
      * @param size Tamaño de la página
      * @return ResponseEntity con la lista paginada de órdenes o mensaje de error
      */
     @GetMapping
-    public ResponseEntity<Page<Order>> getAllOrders(
+    public ResponseEntity<StreamingResponseBody> getAllOrders(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         try {
-            Page<Order> orders = orderService.getAllOrders(PageRequest.of(page, size));
+            Page<OrderListItem> orders = orderListingService.getPage(page, size);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> orderListingService.write(orders, out));
+        } catch (IllegalArgumentException e) {
+            byte[] error = e.getMessage().getBytes(StandardCharsets.UTF_8);
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body(out -> out.write(error));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Obtiene las órdenes paginadas por cursor (keyset), sin total de elementos.
+     * Un cursor vacío devuelve la primera página.
+     * @param after Cursor opaco devuelto en la página anterior
+     * @param size Tamaño de la página
+     * @return ResponseEntity con la página de órdenes y el cursor siguiente o mensaje de error
+     */
+    @GetMapping(params = "after")
+    public ResponseEntity<?> getOrdersAfter(
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") int size) {
+        try {
+            CursorPage<Order> orders = orderService.getOrdersAfter(after, size);
             return ResponseEntity.ok(orders);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
     }
 
+    /**
+     * Exporta las órdenes en streaming, sin cargar el resultado completo en memoria.
+     * @param from Fecha de creación mínima (inclusive, ISO 8601), opcional
+     * @param to Fecha de creación máxima (exclusive, ISO 8601), opcional
+     * @param format Formato de salida: ndjson (por defecto) o csv
+     * @return ResponseEntity con el cuerpo en streaming o mensaje de error
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        if ("csv".equalsIgnoreCase(format)) {
+            StreamingResponseBody body = out -> orderExportService.exportCsv(from, to, out);
+            return ResponseEntity.ok()
+                    .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders.csv\"")
+                    .body(body);
+        }
+        if ("ndjson".equalsIgnoreCase(format)) {
+            StreamingResponseBody body = out -> orderExportService.exportNdjson(from, to, out);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(NDJSON))
+                    .body(body);
+        }
+        byte[] error = ("Formato no soportado: " + format).getBytes(StandardCharsets.UTF_8);
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(out -> out.write(error));
+    }
+
     /**
      * Obtiene una orden por su ID.
      * @param id ID de la orden a obtener
@@ -67,15 +184,29 @@ public class OrderController {
 
     /**
      * Crea una nueva orden.
+     * Con la recepción asíncrona activada, la orden se encola y se responde 202 con un ticket
+     * cuyo estado se consulta en /orders/intake/{ticketId}.
+     * Con la cabecera {@code Idempotency-Key}, una petición repetida con la misma clave devuelve
+     * la respuesta guardada de la primera, con la cabecera {@code Idempotent-Replayed: true},
+     * sin volver a crear la orden; si la clave se reutiliza con otra orden se responde 422,
+     * y si la primera aún se está procesando, 409.
      * @param order Datos de la orden a crear
-     * @return ResponseEntity con la orden creada o mensaje de error
+     * @param idempotencyKey Clave de idempotencia elegida por el cliente (opcional)
+     * @return ResponseEntity con la orden creada, el ticket de la orden encolada o mensaje de error
      */
     @PostMapping
-    public ResponseEntity<?> createOrder(@RequestBody Order order) {
+    public ResponseEntity<?> createOrder(@RequestBody Order order,
+                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         try {
             if (order == null || order.getCustomer() == null || order.getItems() == null || order.getItems().isEmpty()) {
                 return ResponseEntity.badRequest().body("La orden debe incluir un cliente y al menos un item");
             }
+            if (idempotencyKey != null) {
+                return createOrderIdempotent(order, idempotencyKey);
+            }
+            if (orderIntakeService.isEnabled()) {
+                return submitOrder(order);
+            }
             Order savedOrder = orderService.crearOrder(order);
             return ResponseEntity.status(HttpStatus.CREATED).body(savedOrder);
         } catch (IllegalArgumentException e) {
@@ -85,6 +216,152 @@ public class OrderController {
         }
     }
 
+    /**
+     * Crea o encola una orden con clave de idempotencia, o devuelve la respuesta guardada
+     * si la clave ya se ha usado. Solo se guardan las respuestas correctas, de modo que
+     * una petición rechazada puede reintentarse con la misma clave.
+     * La clave se reserva antes de crear o encolar la orden; al encolarla, la reserva se confirma
+     * antes, porque la cola no forma parte de la transacción.
+     * @param order Orden a crear
+     * @param key Clave de idempotencia
+     * @return ResponseEntity con la respuesta nueva o la guardada
+     */
+    private ResponseEntity<?> createOrderIdempotent(Order order, String key) {
+        idempotencyService.validateKey(key);
+        String requestHash = idempotencyService.requestHash(order);
+        Optional<StoredResponse> previous = idempotencyService.find(key);
+        if (previous.isPresent()) {
+            return replay(previous.get(), requestHash);
+        }
+        StoredResponse stored;
+        if (!orderIntakeService.isEnabled()) {
+            stored = idempotencyService.execute(key, requestHash,
+                    () -> ResponseEntity.status(HttpStatus.CREATED).body(orderService.crearOrder(order)));
+        } else {
+            try {
+                stored = idempotencyService.executeAfterClaim(key, requestHash, () -> {
+                    IntakeTicket ticket = orderIntakeService.submit(order);
+                    return ResponseEntity.accepted()
+                            .location(URI.create("/api/orders/intake/" + ticket.getTicketId()))
+                            .body(ticket);
+                });
+            } catch (IllegalStateException e) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body(e.getMessage());
+            }
+        }
+        if (!stored.getRequestHash().equals(requestHash) || stored.isPending()) {
+            return replay(stored, requestHash);
+        }
+        return toResponse(stored).body(stored.getBody());
+    }
+
+    /**
+     * Devuelve una respuesta guardada, 422 si la petición no coincide con la original
+     * o 409 si la original aún se está procesando.
+     * @param stored Respuesta guardada para la clave
+     * @param requestHash Huella de la petición actual
+     * @return ResponseEntity con la respuesta guardada o mensaje de error
+     */
+    private ResponseEntity<?> replay(StoredResponse stored, String requestHash) {
+        if (!stored.getRequestHash().equals(requestHash)) {
+            return ResponseEntity.unprocessableEntity()
+                    .body("La clave de idempotencia ya se ha usado con otra orden");
+        }
+        if (stored.isPending()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("La petición con esta clave de idempotencia aún se está procesando");
+        }
+        return toResponse(stored).header("Idempotent-Replayed", "true").body(stored.getBody());
+    }
+
+    private ResponseEntity.BodyBuilder toResponse(StoredResponse stored) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(stored.getStatus())
+                .contentType(MediaType.APPLICATION_JSON);
+        if (stored.getLocation() != null) {
+            response.location(URI.create(stored.getLocation()));
+        }
+        return response;
+    }
+
+    /**
+     * Obtiene el estado de una orden recibida en modo asíncrono.
+     * @param ticketId ID del ticket devuelto al crear la orden
+     * @return ResponseEntity con el ticket o 404 si no existe
+     */
+    @GetMapping("/intake/{ticketId}")
+    public ResponseEntity<IntakeTicket> getIntakeTicket(@PathVariable String ticketId) {
+        try {
+            return orderIntakeService.getTicket(ticketId)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Encola una orden y responde 202 con su ticket, o 503 si la cola está llena.
+     * @param order Orden a encolar
+     * @return ResponseEntity con el ticket o mensaje de error
+     */
+    private ResponseEntity<?> submitOrder(Order order) {
+        try {
+            IntakeTicket ticket = orderIntakeService.submit(order);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/orders/intake/" + ticket.getTicketId()))
+                    .body(ticket);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(e.getMessage());
+        }
+    }
+
+    /**
+     * Importa un lote de órdenes enviado como array JSON.
+     * @param orders Órdenes a importar
+     * @return ResponseEntity con el resultado de cada registro o mensaje de error
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> importOrders(@RequestBody List<Order> orders) {
+        try {
+            if (orders == null || orders.isEmpty()) {
+                return ResponseEntity.badRequest().body("El lote debe incluir al menos una orden");
+            }
+            return ResponseEntity.ok(orderBatchService.importOrders(orders));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error al importar las órdenes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Importa un lote de órdenes enviado como NDJSON (una orden JSON por línea).
+     * @param body Cuerpo de la petición
+     * @return ResponseEntity con el resultado de cada registro o mensaje de error
+     */
+    @PostMapping(value = "/batch", consumes = NDJSON)
+    public ResponseEntity<?> importOrdersNdjson(InputStream body) {
+        List<Order> orders = new ArrayList<>();
+        int line = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String json;
+            while ((json = reader.readLine()) != null) {
+                line++;
+                if (!json.isBlank()) {
+                    orders.add(objectMapper.readValue(json, Order.class));
+                }
+            }
+        } catch (JsonProcessingException e) {
+            return ResponseEntity.badRequest().body("JSON no válido en la línea " + line + ": " + e.getOriginalMessage());
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body("Error al leer el lote: " + e.getMessage());
+        }
+        return importOrders(orders);
+    }
+
     /**
      * Elimina una orden por su ID.
      * @param id ID de la orden a eliminar
@@ -97,11 +374,27 @@ public class OrderController {
             return ResponseEntity.ok().build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error al eliminar la orden: " + e.getMessage());
         }
     }
 
+    /**
+     * Archiva de inmediato las órdenes anteriores al horizonte configurado,
+     * sin esperar a la ejecución periódica.
+     * @return ResponseEntity con el número de órdenes archivadas o mensaje de error
+     */
+    @PostMapping("/archive")
+    public ResponseEntity<?> archiveOrders() {
+        try {
+            return ResponseEntity.ok(Map.of("archived", orderArchiveService.archive()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error al archivar las órdenes: " + e.getMessage());
+        }
+    }
+
     /**
      * Obtiene todas las órdenes asociadas a un cliente.
      * @param customerId ID del cliente
@@ -123,4 +416,34 @@ public class OrderController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error al obtener las órdenes: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Obtiene el historial de órdenes de un cliente de forma paginada,
+     * con un resumen por orden (ID, fecha, total y número de items).
+     * @param customerId ID del cliente
+     * @param page Número de página (comienza en 0)
+     * @param size Tamaño de la página
+     * @return ResponseEntity con la página de resúmenes, 400 si la página o el tamaño no son válidos
+     *         o 404 si el cliente no existe
+     */
+    @GetMapping("/customer/{customerId}/history")
+    public ResponseEntity<?> getOrderHistory(
+            @PathVariable Integer customerId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        if (page < 0) {
+            return ResponseEntity.badRequest().body("El número de página no puede ser negativo");
+        }
+        if (size <= 0) {
+            return ResponseEntity.badRequest().body("El tamaño de página debe ser mayor que cero");
+        }
+        try {
+            Page<OrderSummary> history = orderService.getOrderHistory(customerId, PageRequest.of(page, size));
+            return ResponseEntity.ok(history);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error al obtener el historial: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package proyecto.cafe.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import proyecto.cafe.service.SalesSummaryService;
+
+import java.time.LocalDate;
+
+/**
+ * Controlador REST que expone los informes de ventas.
+ * Los informes se calculan exclusivamente a partir de los agregados precalculados.
+ * Endpoints disponibles:
+ * - GET /reports/sales?from=&to=&groupBy=: Obtener ventas agrupadas por día, café o cliente
+ * - POST /reports/sales/rebuild: Recalcular los agregados desde el historial de órdenes
+ * @author Maria
+ * @version 1.0
+ */
+@RestController
+@RequestMapping("/api/reports")
+@CrossOrigin(origins = "*")
+public class ReportController {
+
+    @Autowired
+    private SalesSummaryService salesSummaryService;
+
+    /**
+     * Obtiene las ventas entre dos días agrupadas por la dimensión indicada.
+     * @param from Día inicial (inclusive, ISO 8601)
+     * @param to Día final (inclusive, ISO 8601)
+     * @param groupBy Dimensión de agrupación: day (por defecto), cafe o customer
+     * @return ResponseEntity con las filas del informe o mensaje de error
+     */
+    @GetMapping("/sales")
+    public ResponseEntity<?> getSales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String groupBy) {
+        try {
+            return ResponseEntity.ok(salesSummaryService.getSalesReport(from, to, groupBy));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error al obtener el informe: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Recalcula los agregados de ventas a partir del historial completo de órdenes.
+     * @return ResponseEntity con el número de agregados generados o mensaje de error
+     */
+    @PostMapping("/sales/rebuild")
+    public ResponseEntity<?> rebuildSales() {
+        try {
+            return ResponseEntity.ok(salesSummaryService.rebuild());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error al recalcular los agregados: " + e.getMessage());
+        }
+    }
+}
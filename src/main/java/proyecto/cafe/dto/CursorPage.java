@@ -0,0 +1,62 @@
+package proyecto.cafe.dto;
+
+import java.util.List;
+
+/**
+ * Página de resultados obtenida mediante paginación por cursor (keyset).
+ * A diferencia de {@link org.springframework.data.domain.Page}, no incluye
+ * el total de elementos, por lo que no requiere una consulta COUNT.
+ * 
+ * @param <T> Tipo de los elementos de la página
+ * @author Maria
+ * @version 1.0
+ */
+public class CursorPage<T> {
+    private final List<T> content;
+    private final String nextCursor;
+    private final int size;
+
+    /**
+     * Constructor con todos los campos.
+     * @param content Elementos de la página
+     * @param nextCursor Cursor opaco para obtener la siguiente página, o null si no hay más
+     * @param size Tamaño de página solicitado
+     */
+    public CursorPage(List<T> content, String nextCursor, int size) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.size = size;
+    }
+
+    /**
+     * Obtiene los elementos de la página.
+     * @return Lista de elementos
+     */
+    public List<T> getContent() {
+        return content;
+    }
+
+    /**
+     * Obtiene el cursor de la siguiente página.
+     * @return Cursor opaco, o null si es la última página
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Obtiene el tamaño de página solicitado.
+     * @return Tamaño de la página
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Indica si existe una página siguiente.
+     * @return true si hay más resultados
+     */
+    public boolean isHasNext() {
+        return nextCursor != null;
+    }
+}
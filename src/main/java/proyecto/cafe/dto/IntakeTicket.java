@@ -0,0 +1,106 @@
+package proyecto.cafe.dto;
+
+import proyecto.cafe.money.Money;
+
+/**
+ * Estado de una orden recibida en modo asíncrono.
+ * El cliente recibe el ticket al enviar la orden y lo consulta hasta que
+ * la orden se guarda en la base de datos o se rechaza.
+ * 
+ * @author Maria
+ * @version 1.0
+ */
+public class IntakeTicket {
+    /**
+     * Estado de la orden asociada al ticket.
+     */
+    public enum Status {
+        PENDING,
+        CREATED,
+        REJECTED
+    }
+
+    private final String ticketId;
+    private final Status status;
+    private final Integer orderId;
+    private final Money total;
+    private final String error;
+
+    private IntakeTicket(String ticketId, Status status, Integer orderId, Money total, String error) {
+        this.ticketId = ticketId;
+        this.status = status;
+        this.orderId = orderId;
+        this.total = total;
+        this.error = error;
+    }
+
+    /**
+     * Crea un ticket pendiente de guardar.
+     * @param ticketId ID del ticket
+     * @return Ticket con estado PENDING
+     */
+    public static IntakeTicket pending(String ticketId) {
+        return new IntakeTicket(ticketId, Status.PENDING, null, null, null);
+    }
+
+    /**
+     * Crea un ticket cuya orden se ha guardado.
+     * @param ticketId ID del ticket
+     * @param orderId ID asignado a la orden
+     * @param total Total de la orden
+     * @return Ticket con estado CREATED
+     */
+    public static IntakeTicket created(String ticketId, Integer orderId, Money total) {
+        return new IntakeTicket(ticketId, Status.CREATED, orderId, total, null);
+    }
+
+    /**
+     * Crea un ticket cuya orden se ha rechazado.
+     * @param ticketId ID del ticket
+     * @param error Motivo del rechazo
+     * @return Ticket con estado REJECTED
+     */
+    public static IntakeTicket rejected(String ticketId, String error) {
+        return new IntakeTicket(ticketId, Status.REJECTED, null, null, error);
+    }
+
+    /**
+     * Obtiene el ID del ticket.
+     * @return ID del ticket
+     */
+    public String getTicketId() {
+        return ticketId;
+    }
+
+    /**
+     * Obtiene el estado de la orden.
+     * @return Estado
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Obtiene el ID de la orden guardada.
+     * @return ID de la orden, o null si aún no se ha guardado o fue rechazada
+     */
+    public Integer getOrderId() {
+        return orderId;
+    }
+
+    /**
+     * Obtiene el total de la orden guardada.
+     * @return Total de la orden, o null si aún no se ha guardado o fue rechazada
+     */
+    public Money getTotal() {
+        return total;
+    }
+
+    /**
+     * Obtiene el motivo del rechazo.
+     * @return Mensaje de error, o null si no fue rechazada
+     */
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,52 @@
+package proyecto.cafe.dto;
+
+import proyecto.cafe.money.Money;
+
+/**
+ * Entrada compacta del menú para el formulario de órdenes:
+ * solo incluye los datos necesarios para elegir un café y mostrar su precio.
+ * 
+ * @author Maria
+ * @version 1.1
+ */
+public class MenuItem {
+    private final Integer id;
+    private final String nombre;
+    private final Money precio;
+
+    /**
+     * Constructor con todos los campos.
+     * @param id ID del café
+     * @param nombre Nombre del café
+     * @param precio Precio del café
+     */
+    public MenuItem(Integer id, String nombre, Money precio) {
+        this.id = id;
+        this.nombre = nombre;
+        this.precio = precio;
+    }
+
+    /**
+     * Obtiene el ID del café.
+     * @return ID del café
+     */
+    public Integer getId() {
+        return id;
+    }
+
+    /**
+     * Obtiene el nombre del café.
+     * @return Nombre del café
+     */
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Obtiene el precio del café.
+     * @return Precio del café
+     */
+    public Money getPrecio() {
+        return precio;
+    }
+}
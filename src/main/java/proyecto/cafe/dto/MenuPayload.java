@@ -0,0 +1,39 @@
+package proyecto.cafe.dto;
+
+/**
+ * Menú ya serializado en JSON junto con la versión del catálogo de la que procede.
+ * Se reutiliza mientras el catálogo no cambia, evitando volver a serializarlo.
+ * 
+ * @author Maria
+ * @version 1.0
+ */
+public class MenuPayload {
+    private final String version;
+    private final byte[] body;
+
+    /**
+     * Constructor con todos los campos.
+     * @param version Versión del catálogo
+     * @param body Menú serializado en JSON
+     */
+    public MenuPayload(String version, byte[] body) {
+        this.version = version;
+        this.body = body;
+    }
+
+    /**
+     * Obtiene la versión del catálogo.
+     * @return Versión del catálogo
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Obtiene el menú serializado.
+     * @return Cuerpo JSON
+     */
+    public byte[] getBody() {
+        return body;
+    }
+}
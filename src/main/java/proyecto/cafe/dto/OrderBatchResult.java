@@ -0,0 +1,94 @@
+package proyecto.cafe.dto;
+
+import proyecto.cafe.money.Money;
+
+/**
+ * Resultado del procesamiento de un registro dentro de una importación masiva de órdenes.
+ * 
+ * @author Maria
+ * @version 1.1
+ */
+public class OrderBatchResult {
+    /**
+     * Estado final de un registro importado.
+     */
+    public enum Status {
+        CREATED,
+        REJECTED
+    }
+
+    private final int index;
+    private final Status status;
+    private final Integer orderId;
+    private final Money total;
+    private final String error;
+
+    private OrderBatchResult(int index, Status status, Integer orderId, Money total, String error) {
+        this.index = index;
+        this.status = status;
+        this.orderId = orderId;
+        this.total = total;
+        this.error = error;
+    }
+
+    /**
+     * Crea el resultado de un registro insertado correctamente.
+     * @param index Posición del registro en el lote
+     * @param orderId ID asignado a la orden
+     * @param total Total calculado de la orden
+     * @return Resultado con estado CREATED
+     */
+    public static OrderBatchResult created(int index, Integer orderId, Money total) {
+        return new OrderBatchResult(index, Status.CREATED, orderId, total, null);
+    }
+
+    /**
+     * Crea el resultado de un registro rechazado.
+     * @param index Posición del registro en el lote
+     * @param error Motivo del rechazo
+     * @return Resultado con estado REJECTED
+     */
+    public static OrderBatchResult rejected(int index, String error) {
+        return new OrderBatchResult(index, Status.REJECTED, null, null, error);
+    }
+
+    /**
+     * Obtiene la posición del registro en el lote (comienza en 0).
+     * @return Posición del registro
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Obtiene el estado del registro.
+     * @return Estado final
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Obtiene el ID de la orden creada.
+     * @return ID de la orden, o null si fue rechazada
+     */
+    public Integer getOrderId() {
+        return orderId;
+    }
+
+    /**
+     * Obtiene el total de la orden creada.
+     * @return Total de la orden, o null si fue rechazada
+     */
+    public Money getTotal() {
+        return total;
+    }
+
+    /**
+     * Obtiene el motivo del rechazo.
+     * @return Mensaje de error, o null si se creó
+     */
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,73 @@
+package proyecto.cafe.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posición dentro del listado de órdenes ordenado por (creationDate, id).
+ * Se transmite al cliente como una cadena opaca codificada en Base64 URL-safe.
+ * 
+ * @author Maria
+ * @version 1.0
+ */
+public class OrderCursor {
+    private final LocalDateTime creationDate;
+    private final Integer id;
+
+    /**
+     * Constructor con todos los campos.
+     * @param creationDate Fecha de creación de la última orden devuelta
+     * @param id ID de la última orden devuelta
+     */
+    public OrderCursor(LocalDateTime creationDate, Integer id) {
+        this.creationDate = creationDate;
+        this.id = id;
+    }
+
+    /**
+     * Obtiene la fecha de creación de la posición.
+     * @return Fecha de creación
+     */
+    public LocalDateTime getCreationDate() {
+        return creationDate;
+    }
+
+    /**
+     * Obtiene el ID de la posición.
+     * @return ID de la orden
+     */
+    public Integer getId() {
+        return id;
+    }
+
+    /**
+     * Codifica el cursor como cadena opaca.
+     * @return Cursor codificado
+     */
+    public String encode() {
+        String raw = creationDate + "," + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor recibido del cliente.
+     * @param cursor Cursor codificado
+     * @return Cursor decodificado
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    public static OrderCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(',');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Cursor no válido");
+            }
+            return new OrderCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Integer.valueOf(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor no válido");
+        }
+    }
+}
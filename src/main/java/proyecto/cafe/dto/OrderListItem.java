@@ -0,0 +1,132 @@
+package proyecto.cafe.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Orden del listado paginado, con solo los datos que muestra la lista:
+ * el cliente se reduce a su ID y nombre, y cada item al café, la cantidad y el precio.
+ * Se construye desde una consulta de proyección, sin cargar las entidades.
+ *
+ * @author Maria
+ * @version 1.0
+ */
+public class OrderListItem {
+    private final int id;
+    private final LocalDateTime creationDate;
+    private final BigDecimal total;
+    private final int customerId;
+    private final String customerName;
+    private final List<Item> items = new ArrayList<>(4);
+
+    /**
+     * Constructor con los datos de la orden, sin items.
+     * @param id ID de la orden
+     * @param creationDate Fecha de creación
+     * @param total Total de la orden
+     * @param customerId ID del cliente
+     * @param customerName Nombre del cliente
+     */
+    public OrderListItem(int id, LocalDateTime creationDate, BigDecimal total, int customerId, String customerName) {
+        this.id = id;
+        this.creationDate = creationDate;
+        this.total = total;
+        this.customerId = customerId;
+        this.customerName = customerName;
+    }
+
+    /**
+     * Obtiene el ID de la orden.
+     * @return ID de la orden
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Obtiene la fecha de creación de la orden.
+     * @return Fecha y hora de creación
+     */
+    public LocalDateTime getCreationDate() {
+        return creationDate;
+    }
+
+    /**
+     * Obtiene el total de la orden.
+     * @return Total con dos decimales
+     */
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    /**
+     * Obtiene el ID del cliente.
+     * @return ID del cliente
+     */
+    public int getCustomerId() {
+        return customerId;
+    }
+
+    /**
+     * Obtiene el nombre del cliente.
+     * @return Nombre del cliente
+     */
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    /**
+     * Obtiene los items de la orden.
+     * @return Items, en el orden en que se crearon
+     */
+    public List<Item> getItems() {
+        return items;
+    }
+
+    /**
+     * Item de una orden del listado.
+     */
+    public static class Item {
+        private final int cafeId;
+        private final int cantidad;
+        private final BigDecimal precio;
+
+        /**
+         * Constructor con todos los campos.
+         * @param cafeId ID del café
+         * @param cantidad Cantidad pedida
+         * @param precio Precio unitario
+         */
+        public Item(int cafeId, int cantidad, BigDecimal precio) {
+            this.cafeId = cafeId;
+            this.cantidad = cantidad;
+            this.precio = precio;
+        }
+
+        /**
+         * Obtiene el ID del café.
+         * @return ID del café
+         */
+        public int getCafeId() {
+            return cafeId;
+        }
+
+        /**
+         * Obtiene la cantidad pedida.
+         * @return Cantidad
+         */
+        public int getCantidad() {
+            return cantidad;
+        }
+
+        /**
+         * Obtiene el precio unitario.
+         * @return Precio con dos decimales
+         */
+        public BigDecimal getPrecio() {
+            return precio;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package proyecto.cafe.dto;
+
+import proyecto.cafe.money.Money;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resumen ligero de una orden para listados de historial.
+ * Se construye directamente desde una consulta de proyección, sin cargar
+ * la entidad {@link proyecto.cafe.entity.Order} ni sus items.
+ * 
+ * @author Maria
+ * @version 1.1
+ */
+public class OrderSummary {
+    private final Integer id;
+    private final LocalDateTime creationDate;
+    private final Money total;
+    private final long itemCount;
+
+    /**
+     * Constructor con todos los campos, utilizado por la consulta de proyección.
+     * @param id ID de la orden
+     * @param creationDate Fecha de creación de la orden
+     * @param total Total de la orden
+     * @param itemCount Número de items de la orden
+     */
+    public OrderSummary(Integer id, LocalDateTime creationDate, Money total, Long itemCount) {
+        this.id = id;
+        this.creationDate = creationDate;
+        this.total = total;
+        this.itemCount = itemCount != null ? itemCount : 0;
+    }
+
+    /**
+     * Obtiene el ID de la orden.
+     * @return ID de la orden
+     */
+    public Integer getId() {
+        return id;
+    }
+
+    /**
+     * Obtiene la fecha de creación de la orden.
+     * @return Fecha y hora de creación
+     */
+    public LocalDateTime getCreationDate() {
+        return creationDate;
+    }
+
+    /**
+     * Obtiene el total de la orden.
+     * @return Total de la orden
+     */
+    public Money getTotal() {
+        return total;
+    }
+
+    /**
+     * Obtiene el número de items de la orden.
+     * @return Número de items
+     */
+    public long getItemCount() {
+        return itemCount;
+    }
+}
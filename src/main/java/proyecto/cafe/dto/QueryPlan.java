@@ -0,0 +1,109 @@
+package proyecto.cafe.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plan de ejecución (EXPLAIN) de una consulta del repositorio de órdenes.
+ * 
+ * @author Maria
+ * @version 1.0
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class QueryPlan {
+    private final String method;
+    private final String kind;
+    private final String sql;
+    private final List<Map<String, Object>> plan;
+    private final List<String> fullScans;
+    private final boolean fullScanExpected;
+    private final String error;
+
+    /**
+     * Constructor con todos los campos.
+     * @param method Método del repositorio
+     * @param kind Tipo de consulta: "query" (datos) o "count" (recuento de la paginación)
+     * @param sql SQL generado
+     * @param plan Filas devueltas por EXPLAIN
+     * @param fullScans Tablas que se recorren completas
+     * @param fullScanExpected Si el recorrido completo es inherente a la consulta (listados sin filtro)
+     * @param error Motivo por el que no se pudo analizar, o null
+     */
+    public QueryPlan(String method, String kind, String sql, List<Map<String, Object>> plan,
+                     List<String> fullScans, boolean fullScanExpected, String error) {
+        this.method = method;
+        this.kind = kind;
+        this.sql = sql;
+        this.plan = plan;
+        this.fullScans = fullScans;
+        this.fullScanExpected = fullScanExpected;
+        this.error = error;
+    }
+
+    /**
+     * Obtiene el método del repositorio.
+     * @return Nombre del método
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * Obtiene el tipo de consulta.
+     * @return "query" o "count"
+     */
+    public String getKind() {
+        return kind;
+    }
+
+    /**
+     * Obtiene el SQL generado.
+     * @return SQL con marcadores {@code ?}
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Obtiene las filas devueltas por EXPLAIN.
+     * @return Plan de ejecución
+     */
+    public List<Map<String, Object>> getPlan() {
+        return plan;
+    }
+
+    /**
+     * Obtiene las tablas que se recorren completas.
+     * @return Nombres de tabla
+     */
+    public List<String> getFullScans() {
+        return fullScans;
+    }
+
+    /**
+     * Indica si el recorrido completo es inherente a la consulta.
+     * @return true para listados sin filtro
+     */
+    public boolean isFullScanExpected() {
+        return fullScanExpected;
+    }
+
+    /**
+     * Obtiene el motivo por el que no se pudo analizar la consulta.
+     * @return Mensaje de error, o null
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Indica si la consulta debe revisarse: recorre alguna tabla completa sin que
+     * sea lo esperado, o no se pudo analizar.
+     * @return true si la consulta está señalada
+     */
+    public boolean isFlagged() {
+        return error != null || (fullScans != null && !fullScans.isEmpty() && !fullScanExpected);
+    }
+}
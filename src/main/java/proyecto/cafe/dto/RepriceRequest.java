@@ -0,0 +1,86 @@
+package proyecto.cafe.dto;
+
+import proyecto.cafe.money.Money;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Petición de cambio de precio masivo de cafés.
+ * Los cafés se seleccionan por ID ({@code ids}) o por nombre ({@code namePattern},
+ * patrón LIKE de SQL, sin distinguir mayúsculas), y el precio cambia en un porcentaje
+ * ({@code percent}, p. ej. 5 o -10) o en un importe fijo ({@code amount}, p. ej. 0.20).
+ *
+ * @author Maria
+ * @version 1.0
+ */
+public class RepriceRequest {
+    private List<Integer> ids;
+    private String namePattern;
+    private BigDecimal percent;
+    private Money amount;
+
+    /**
+     * Obtiene los IDs de los cafés a modificar.
+     * @return IDs de los cafés, o null si se seleccionan por nombre
+     */
+    public List<Integer> getIds() {
+        return ids;
+    }
+
+    /**
+     * Establece los IDs de los cafés a modificar.
+     * @param ids IDs de los cafés
+     */
+    public void setIds(List<Integer> ids) {
+        this.ids = ids;
+    }
+
+    /**
+     * Obtiene el patrón de nombre de los cafés a modificar.
+     * @return Patrón LIKE (con {@code %} y {@code _}), o null si se seleccionan por ID
+     */
+    public String getNamePattern() {
+        return namePattern;
+    }
+
+    /**
+     * Establece el patrón de nombre de los cafés a modificar.
+     * @param namePattern Patrón LIKE, p. ej. {@code espresso%}
+     */
+    public void setNamePattern(String namePattern) {
+        this.namePattern = namePattern;
+    }
+
+    /**
+     * Obtiene el porcentaje de cambio del precio.
+     * @return Porcentaje (positivo para subir, negativo para bajar), o null si el cambio es un importe
+     */
+    public BigDecimal getPercent() {
+        return percent;
+    }
+
+    /**
+     * Establece el porcentaje de cambio del precio.
+     * @param percent Porcentaje, mayor que -100
+     */
+    public void setPercent(BigDecimal percent) {
+        this.percent = percent;
+    }
+
+    /**
+     * Obtiene el importe que se suma al precio.
+     * @return Importe (negativo para bajar), o null si el cambio es un porcentaje
+     */
+    public Money getAmount() {
+        return amount;
+    }
+
+    /**
+     * Establece el importe que se suma al precio.
+     * @param amount Importe a sumar
+     */
+    public void setAmount(Money amount) {
+        this.amount = amount;
+    }
+}
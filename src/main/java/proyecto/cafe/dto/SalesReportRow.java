@@ -0,0 +1,106 @@
+package proyecto.cafe.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import proyecto.cafe.money.Money;
+
+import java.time.LocalDate;
+
+/**
+ * Fila de un informe de ventas. Solo se informa el campo de la dimensión
+ * por la que se agrupa (día, café o cliente).
+ * 
+ * @author Maria
+ * @version 1.1
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SalesReportRow {
+    private LocalDate day;
+    private Integer cafeId;
+    private Integer customerId;
+    private final Money revenue;
+    private final Long quantity;
+
+    private SalesReportRow(Money revenue, Long quantity) {
+        this.revenue = revenue;
+        this.quantity = quantity;
+    }
+
+    /**
+     * Crea una fila agrupada por día.
+     * @param day Día
+     * @param revenue Ingresos
+     * @param quantity Cantidad vendida
+     * @return Fila del informe
+     */
+    public static SalesReportRow byDay(LocalDate day, Money revenue, Long quantity) {
+        SalesReportRow row = new SalesReportRow(revenue, quantity);
+        row.day = day;
+        return row;
+    }
+
+    /**
+     * Crea una fila agrupada por café.
+     * @param cafeId ID del café
+     * @param revenue Ingresos
+     * @param quantity Cantidad vendida
+     * @return Fila del informe
+     */
+    public static SalesReportRow byCafe(Integer cafeId, Money revenue, Long quantity) {
+        SalesReportRow row = new SalesReportRow(revenue, quantity);
+        row.cafeId = cafeId;
+        return row;
+    }
+
+    /**
+     * Crea una fila agrupada por cliente.
+     * @param customerId ID del cliente
+     * @param revenue Ingresos
+     * @param quantity Cantidad vendida
+     * @return Fila del informe
+     */
+    public static SalesReportRow byCustomer(Integer customerId, Money revenue, Long quantity) {
+        SalesReportRow row = new SalesReportRow(revenue, quantity);
+        row.customerId = customerId;
+        return row;
+    }
+
+    /**
+     * Obtiene el día de la fila.
+     * @return Día, o null si no se agrupa por día
+     */
+    public LocalDate getDay() {
+        return day;
+    }
+
+    /**
+     * Obtiene el ID del café de la fila.
+     * @return ID del café, o null si no se agrupa por café
+     */
+    public Integer getCafeId() {
+        return cafeId;
+    }
+
+    /**
+     * Obtiene el ID del cliente de la fila.
+     * @return ID del cliente, o null si no se agrupa por cliente
+     */
+    public Integer getCustomerId() {
+        return customerId;
+    }
+
+    /**
+     * Obtiene los ingresos acumulados.
+     * @return Ingresos
+     */
+    public Money getRevenue() {
+        return revenue;
+    }
+
+    /**
+     * Obtiene la cantidad acumulada.
+     * @return Cantidad vendida
+     */
+    public Long getQuantity() {
+        return quantity;
+    }
+}
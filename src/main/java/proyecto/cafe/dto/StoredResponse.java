@@ -0,0 +1,96 @@
+package proyecto.cafe.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Respuesta guardada para una clave de idempotencia.
+ * Se devuelve tal cual cuando el cliente repite la petición con la misma clave.
+ * Mientras la primera petición se procesa, la clave queda reservada con una respuesta
+ * pendiente, sin código de estado ni cuerpo.
+ *
+ * @author Maria
+ * @version 1.1
+ */
+public class StoredResponse {
+    private static final int PENDING = 0;
+
+    private final String requestHash;
+    private final int status;
+    private final String location;
+    private final String body;
+    private final LocalDateTime createdAt;
+
+    /**
+     * Constructor con todos los datos de la respuesta.
+     * @param requestHash Huella SHA-256 de la petición original
+     * @param status Código de estado HTTP
+     * @param location Cabecera Location, o null si la respuesta no la tiene
+     * @param body Cuerpo JSON de la respuesta
+     * @param createdAt Momento en que se guardó
+     */
+    public StoredResponse(String requestHash, int status, String location, String body, LocalDateTime createdAt) {
+        this.requestHash = requestHash;
+        this.status = status;
+        this.location = location;
+        this.body = body;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Crea la respuesta pendiente con la que se reserva una clave.
+     * @param requestHash Huella SHA-256 de la petición
+     * @param createdAt Momento de la reserva
+     * @return Respuesta pendiente
+     */
+    public static StoredResponse pending(String requestHash, LocalDateTime createdAt) {
+        return new StoredResponse(requestHash, PENDING, null, "", createdAt);
+    }
+
+    /**
+     * Indica si la petición original aún se está procesando.
+     * @return true si la respuesta está pendiente
+     */
+    public boolean isPending() {
+        return status == PENDING;
+    }
+
+    /**
+     * Obtiene la huella de la petición original.
+     * @return Huella SHA-256 en hexadecimal
+     */
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    /**
+     * Obtiene el código de estado HTTP.
+     * @return Código de estado
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Obtiene la cabecera Location de la respuesta.
+     * @return URI relativa, o null si no la tiene
+     */
+    public String getLocation() {
+        return location;
+    }
+
+    /**
+     * Obtiene el cuerpo de la respuesta.
+     * @return Cuerpo JSON
+     */
+    public String getBody() {
+        return body;
+    }
+
+    /**
+     * Obtiene el momento en que se guardó la respuesta.
+     * @return Fecha y hora de creación
+     */
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,315 @@
+package proyecto.cafe.embedded;
+
+import jakarta.annotation.PreDestroy;
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import proyecto.cafe.entity.Cafe;
+import proyecto.cafe.entity.Customer;
+import proyecto.cafe.entity.Order;
+import proyecto.cafe.entity.OrderItem;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Instantáneas en disco de la base de datos en memoria del perfil {@code embedded}.
+ * Con este perfil la aplicación usa una base de datos H2 en memoria dentro del propio proceso,
+ * sin servidor de base de datos. Al arrancar, antes de las migraciones de Flyway, se carga la
+ * última instantánea ({@code cafe.embedded.snapshot.file}) si existe; después se escribe una nueva
+ * cada {@code cafe.embedded.snapshot.interval} y al detener la aplicación.
+ * La instantánea se escribe en un fichero temporal y se renombra, de modo que una caída a mitad
+ * de la escritura conserva la anterior.
+ *
+ * Las órdenes creadas y eliminadas, y los cafés y clientes creados, después de la instantánea
+ * se recuperan del {@link OrderJournal}: sus segmentos se leen en paralelo mientras se carga la
+ * instantánea y se aplican después de las migraciones. El diario se abre por su cuenta, así que
+ * con {@code spring.flyway.enabled=false} se sigue escribiendo aunque no se cargue ni se aplique nada. Cada instantánea empieza un segmento nuevo
+ * del diario y, una vez guardada, borra los anteriores, que ya contiene. Los registros se aplican
+ * de forma idempotente, así que repetir los que ya estaban en la instantánea no tiene efecto.
+ * Las modificaciones y eliminaciones de cafés y clientes no se anotan y solo se conservan en
+ * las instantáneas. Una orden del diario cuyo cliente o café no existe se descarta y se registra
+ * en el log con su ID.
+ *
+ * @author Maria
+ * @version 1.3
+ */
+@Component
+@Profile("embedded")
+public class EmbeddedSnapshotStore implements FlywayMigrationStrategy {
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedSnapshotStore.class);
+
+    private static final String INSERT_ORDER =
+            "INSERT INTO orders (id, customer_id, total, creation_date) SELECT ?, ?, ?, ? " +
+            "WHERE NOT EXISTS (SELECT 1 FROM orders WHERE id = ?) " +
+            "AND NOT EXISTS (SELECT 1 FROM orders_archive WHERE id = ?)";
+
+    private static final String INSERT_ITEM =
+            "INSERT INTO order_items (order_id, cafe_id, cantidad, precio) VALUES (?, ?, ?, ?)";
+
+    private static final String INSERT_CAFE =
+            "INSERT INTO cafes (id, nombre, descripcion, precio, version) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_CUSTOMER =
+            "INSERT INTO customers (id, name, email, version) SELECT ?, ?, ?, ? " +
+            "WHERE NOT EXISTS (SELECT 1 FROM customers WHERE email = ?)";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private OrderJournal orderJournal;
+
+    private final Path file;
+
+    /**
+     * Constructor con la ruta del fichero de instantáneas.
+     * @param file Ruta del fichero (comprimido con GZIP)
+     */
+    public EmbeddedSnapshotStore(@Value("${cafe.embedded.snapshot.file:data/cafe-snapshot.sql.gz}") String file) {
+        this.file = Path.of(file).toAbsolutePath();
+    }
+
+    /**
+     * Carga la última instantánea, si existe, aplica las migraciones pendientes y después
+     * los registros del diario de órdenes, que se leen mientras se carga la instantánea.
+     * @param flyway Flyway configurado por Spring Boot
+     */
+    @Override
+    public void migrate(Flyway flyway) {
+        CompletableFuture<List<OrderJournal.Entry>> tail = CompletableFuture.supplyAsync(orderJournal::readAll);
+        if (Files.exists(file)) {
+            execute("RUNSCRIPT FROM '" + quote(file) + "' COMPRESSION GZIP");
+            log.info("Instantánea cargada desde {}", file);
+        }
+        flyway.migrate();
+        try {
+            replay(tail.join());
+        } catch (SQLException e) {
+            throw new IllegalStateException("No se pudo aplicar el diario de órdenes: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Escritura periódica de la instantánea.
+     */
+    @Scheduled(fixedDelayString = "${cafe.embedded.snapshot.interval:PT5M}",
+               initialDelayString = "${cafe.embedded.snapshot.interval:PT5M}")
+    public void scheduledSnapshot() {
+        snapshot();
+    }
+
+    /**
+     * Escribe la última instantánea al detener la aplicación.
+     */
+    @PreDestroy
+    public void shutdownSnapshot() {
+        snapshot();
+    }
+
+    /**
+     * Escribe una instantánea de toda la base de datos (esquema y datos) en el fichero configurado.
+     */
+    public synchronized void snapshot() {
+        try {
+            Path parent = file.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            long start = System.nanoTime();
+            long firstKept = orderJournal.rotate();
+            execute("SCRIPT TO '" + quote(tmp) + "' COMPRESSION GZIP");
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            int compacted = orderJournal.deleteBefore(firstKept);
+            log.info("Instantánea escrita en {} en {} ms ({} segmentos del diario compactados)",
+                    file, (System.nanoTime() - start) / 1_000_000, compacted);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir la instantánea " + file, e);
+        }
+    }
+
+    /**
+     * Aplica los registros del diario en una transacción: primero los cafés y clientes que no
+     * existen, porque el registro de uno de ellos puede haberse escrito después del de una orden
+     * que lo usa, y después, en orden, las órdenes que no existen (ni en {@code orders} ni en
+     * {@code orders_archive}) y las eliminaciones.
+     * Si cambia algo, ajusta las identidades y vacía los agregados de ventas, que
+     * {@code SalesSummaryService} regenera al arrancar.
+     */
+    private void replay(List<OrderJournal.Entry> entries) throws SQLException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            Set<Integer> cafes = ids(connection, "cafes");
+            Set<Integer> customers = ids(connection, "customers");
+            int catalog = 0;
+            try (PreparedStatement insertCafe = connection.prepareStatement(INSERT_CAFE);
+                 PreparedStatement insertCustomer = connection.prepareStatement(INSERT_CUSTOMER)) {
+                for (OrderJournal.Entry entry : entries) {
+                    Cafe cafe = entry.getCafe();
+                    if (cafe != null && cafes.add(cafe.getId())) {
+                        insertCafe.setInt(1, cafe.getId());
+                        insertCafe.setString(2, cafe.getNombre());
+                        insertCafe.setString(3, cafe.getDescripcion());
+                        insertCafe.setBigDecimal(4, cafe.getPrecio().toBigDecimal());
+                        insertCafe.setLong(5, cafe.getVersion());
+                        catalog += insertCafe.executeUpdate();
+                    }
+                    Customer customer = entry.getCustomer();
+                    if (customer != null && !customers.contains(customer.getId())) {
+                        insertCustomer.setInt(1, customer.getId());
+                        insertCustomer.setString(2, customer.getName());
+                        insertCustomer.setString(3, customer.getEmail());
+                        insertCustomer.setLong(4, customer.getVersion());
+                        insertCustomer.setString(5, customer.getEmail());
+                        if (insertCustomer.executeUpdate() == 0) {
+                            log.warn("Cliente {} del diario descartado: ya existe otro cliente con el email {}",
+                                    customer.getId(), customer.getEmail());
+                            continue;
+                        }
+                        customers.add(customer.getId());
+                        catalog++;
+                    }
+                }
+            }
+
+            int created = 0;
+            int deleted = 0;
+            int skipped = 0;
+            int maxId = 0;
+            try (PreparedStatement insertOrder = connection.prepareStatement(INSERT_ORDER);
+                 PreparedStatement insertItem = connection.prepareStatement(INSERT_ITEM);
+                 PreparedStatement deleteItems = connection.prepareStatement("DELETE FROM order_items WHERE order_id = ?");
+                 PreparedStatement deleteOrder = connection.prepareStatement("DELETE FROM orders WHERE id = ?")) {
+                for (OrderJournal.Entry entry : entries) {
+                    if (!entry.isOrder()) {
+                        continue;
+                    }
+                    maxId = Math.max(maxId, entry.getId());
+                    if (entry.isDeleted()) {
+                        deleteItems.setInt(1, entry.getId());
+                        deleteItems.executeUpdate();
+                        deleteOrder.setInt(1, entry.getId());
+                        deleted += deleteOrder.executeUpdate();
+                        continue;
+                    }
+                    Order order = entry.getOrder();
+                    if (!customers.contains(order.getCustomer().getId())) {
+                        log.warn("Orden {} del diario descartada: no existe el cliente {}",
+                                order.getId(), order.getCustomer().getId());
+                        skipped++;
+                        continue;
+                    }
+                    Optional<Integer> missingCafe = order.getItems().stream()
+                            .map(item -> item.getCafe().getId())
+                            .filter(id -> !cafes.contains(id))
+                            .findFirst();
+                    if (missingCafe.isPresent()) {
+                        log.warn("Orden {} del diario descartada: no existe el café {}", order.getId(), missingCafe.get());
+                        skipped++;
+                        continue;
+                    }
+                    insertOrder.setInt(1, order.getId());
+                    insertOrder.setInt(2, order.getCustomer().getId());
+                    insertOrder.setBigDecimal(3, order.getTotal().toBigDecimal());
+                    insertOrder.setTimestamp(4, Timestamp.valueOf(order.getCreationDate()));
+                    insertOrder.setInt(5, order.getId());
+                    insertOrder.setInt(6, order.getId());
+                    if (insertOrder.executeUpdate() == 0) {
+                        // Ya estaba en la instantánea o se archivó
+                        continue;
+                    }
+                    for (OrderItem item : order.getItems()) {
+                        insertItem.setInt(1, order.getId());
+                        insertItem.setInt(2, item.getCafe().getId());
+                        insertItem.setInt(3, item.getCantidad());
+                        insertItem.setBigDecimal(4, item.getPrecio().toBigDecimal());
+                        insertItem.addBatch();
+                    }
+                    insertItem.executeBatch();
+                    created++;
+                }
+            }
+            try (Statement statement = connection.createStatement()) {
+                if (catalog > 0) {
+                    restartIdentity(statement, "cafes", null, 1);
+                    restartIdentity(statement, "customers", null, 1);
+                }
+                if (created > 0 || deleted > 0) {
+                    statement.executeUpdate("DELETE FROM sales_summary");
+                    restartIdentity(statement, "orders", "orders_archive", maxId + 1);
+                }
+            }
+            connection.commit();
+            log.info("Diario de órdenes aplicado: {} registros, {} cafés y clientes recuperados, {} órdenes recuperadas, "
+                    + "{} eliminadas, {} descartadas", entries.size(), catalog, created, deleted, skipped);
+        }
+    }
+
+    private static Set<Integer> ids(Connection connection, String table) throws SQLException {
+        Set<Integer> ids = new HashSet<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT id FROM " + table)) {
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Lleva la identidad de una tabla al mayor de su valor actual, el ID máximo más uno
+     * (también en la tabla de archivo, si la hay) y el mínimo indicado, para no reutilizar
+     * los IDs que aparecen en el diario.
+     */
+    private static void restartIdentity(Statement statement, String table, String archive, long minimum) throws SQLException {
+        long next;
+        try (ResultSet rs = statement.executeQuery(
+                "SELECT GREATEST(COALESCE((SELECT IDENTITY_BASE FROM INFORMATION_SCHEMA.COLUMNS " +
+                "WHERE TABLE_NAME = '" + table.toUpperCase() + "' AND COLUMN_NAME = 'ID'), 1), " +
+                "(SELECT COALESCE(MAX(id), 0) + 1 FROM " + table + ")" +
+                (archive != null ? ", (SELECT COALESCE(MAX(id), 0) + 1 FROM " + archive + ")" : "") + ")")) {
+            rs.next();
+            next = Math.max(rs.getLong(1), minimum);
+        }
+        statement.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+    }
+
+    private void execute(String sql) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Error en la instantánea " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static String quote(Path path) {
+        return path.toString().replace("'", "''");
+    }
+}
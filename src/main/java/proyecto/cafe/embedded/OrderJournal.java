@@ -0,0 +1,646 @@
+package proyecto.cafe.embedded;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import proyecto.cafe.entity.Cafe;
+import proyecto.cafe.entity.Customer;
+import proyecto.cafe.entity.Order;
+import proyecto.cafe.entity.OrderItem;
+import proyecto.cafe.money.Money;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Diario binario de escritura anticipada de las órdenes del perfil {@code embedded}.
+ * Cada orden creada o eliminada se anota justo antes de confirmar su transacción, y la confirmación
+ * espera a que el registro esté en disco: ninguna otra petición ve una orden que no esté en el diario,
+ * y tras una caída se recuperan los cambios posteriores a la última instantánea de {@link EmbeddedSnapshotStore}.
+ * Si no se puede escribir en el diario, la transacción se deshace y la petición falla sin guardar nada.
+ * Si la transacción se deshace después de anotar órdenes creadas, se anota su eliminación; un registro
+ * de una transacción que no llegó a confirmarse por una caída se aplica igualmente al arrancar.
+ * También se anotan los cafés y clientes creados, para que las órdenes que los usan puedan
+ * recuperarse aunque no estén en la instantánea.
+ *
+ * El diario se divide en segmentos de tamaño fijo ({@code cafe.embedded.journal.segment-size})
+ * proyectados en memoria. Los registros se copian al segmento bajo un cerrojo y un hilo aparte
+ * los fuerza a disco: todas las escrituras que llegan mientras se fuerza el segmento se confirman
+ * con el siguiente {@code force()} (group commit). Con {@code cafe.embedded.journal.sync=false}
+ * no se espera a disco y los registros solo sobreviven a la caída del proceso, no a la del sistema.
+ * Si falla un {@code force()}, las escrituras que lo esperaban y todas las siguientes fallan con
+ * el mismo error: ninguna se da por guardada sin estarlo.
+ *
+ * Formato de cada registro: longitud (int), CRC32C del contenido (int) y contenido:
+ * - creada: tipo 1, id, cliente, fecha (segundos y nanos), total en céntimos,
+ *   número de items y, por item, café, cantidad y precio en céntimos
+ * - eliminada: tipo 2, id
+ * - café creado: tipo 3, id, versión, precio en céntimos, nombre y descripción
+ * - cliente creado: tipo 4, id, versión, nombre y email
+ * Los textos se guardan como longitud en bytes (-1 si es null) y UTF-8.
+ * Una longitud 0 marca el final del segmento; un registro con CRC incorrecto (escritura
+ * interrumpida) también, y se ignora junto con lo que le sigue.
+ *
+ * @author Maria
+ * @version 1.2
+ */
+@Component
+@Profile("embedded")
+public class OrderJournal implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderJournal.class);
+
+    private static final byte CREATED = 1;
+    private static final byte DELETED = 2;
+    private static final byte CAFE_CREATED = 3;
+    private static final byte CUSTOMER_CREATED = 4;
+    private static final int HEADER = 8;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean sync;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pending = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+
+    private long segment;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long written;
+    private long durable;
+    private boolean open;
+    private RuntimeException failure;
+    private Thread flusher;
+
+    /**
+     * Constructor con la ubicación y el tamaño de los segmentos.
+     * @param directory Directorio de los segmentos
+     * @param segmentSize Tamaño de cada segmento en bytes
+     * @param sync Si es true, cada escritura espera a que sus registros estén en disco
+     */
+    public OrderJournal(@Value("${cafe.embedded.journal.directory:data/order-journal}") Path directory,
+                        @Value("${cafe.embedded.journal.segment-size:67108864}") int segmentSize,
+                        @Value("${cafe.embedded.journal.sync:true}") boolean sync) {
+        this.directory = directory.toAbsolutePath();
+        this.segmentSize = segmentSize;
+        this.sync = sync;
+    }
+
+    /**
+     * Lee todos los segmentos existentes, en paralelo, y devuelve sus registros en el orden
+     * en que se escribieron. Con el diario abierto incluye el segmento en curso.
+     *
+     * @return Registros del diario
+     * @throws UncheckedIOException si no se puede leer algún segmento
+     */
+    public List<Entry> readAll() {
+        List<Path> segments = segments();
+        return segments.parallelStream()
+                .map(OrderJournal::readSegment)
+                .flatMap(List::stream)
+                .toList();
+    }
+
+    /**
+     * Empieza a escribir en un segmento nuevo, posterior a los existentes. Se llama al crear
+     * el componente, aunque Flyway esté desactivado; si el diario ya está abierto no hace nada.
+     * @throws IOException si no se puede crear el segmento
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        lock.lock();
+        try {
+            if (open) {
+                return;
+            }
+            Files.createDirectories(directory);
+            List<Path> segments = segments();
+            segment = segments.isEmpty() ? 0 : number(segments.get(segments.size() - 1));
+            roll();
+            open = true;
+            flusher = new Thread(this::flushLoop, "order-journal-flusher");
+            flusher.setDaemon(true);
+            flusher.start();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Anota las órdenes creadas. Dentro de una transacción se escriben antes de confirmarla,
+     * y si después se deshace se anota su eliminación; fuera de ella, inmediatamente.
+     * @param orders Órdenes creadas, con su ID asignado
+     */
+    public void recordCreated(Collection<Order> orders) {
+        List<byte[]> records = new ArrayList<>(orders.size());
+        List<byte[]> undo = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            records.add(encodeCreated(order));
+            undo.add(encodeDeleted(order.getId()));
+        }
+        appendBeforeCommit(records, undo);
+    }
+
+    /**
+     * Anota la eliminación de una orden. Dentro de una transacción se escribe antes de confirmarla.
+     * @param orderId ID de la orden eliminada
+     */
+    public void recordDeleted(Integer orderId) {
+        appendBeforeCommit(List.of(encodeDeleted(orderId)), List.of());
+    }
+
+    /**
+     * Anota un café creado. Dentro de una transacción se escribe antes de confirmarla.
+     * @param cafe Café creado, con su ID asignado
+     */
+    public void recordCafeCreated(Cafe cafe) {
+        byte[] nombre = utf8(cafe.getNombre());
+        byte[] descripcion = utf8(cafe.getDescripcion());
+        ByteBuffer record = ByteBuffer.allocate(HEADER + 21 + length(nombre) + length(descripcion));
+        record.position(HEADER);
+        record.put(CAFE_CREATED)
+                .putInt(cafe.getId())
+                .putLong(cafe.getVersion() != null ? cafe.getVersion() : 0)
+                .putLong(cafe.getPrecio() != null ? cafe.getPrecio().getCents() : 0);
+        putString(record, nombre);
+        putString(record, descripcion);
+        appendBeforeCommit(List.of(seal(record)), List.of());
+    }
+
+    /**
+     * Anota un cliente creado. Dentro de una transacción se escribe antes de confirmarla.
+     * @param customer Cliente creado, con su ID asignado
+     */
+    public void recordCustomerCreated(Customer customer) {
+        byte[] name = utf8(customer.getName());
+        byte[] email = utf8(customer.getEmail());
+        ByteBuffer record = ByteBuffer.allocate(HEADER + 13 + length(name) + length(email));
+        record.position(HEADER);
+        record.put(CUSTOMER_CREATED)
+                .putInt(customer.getId())
+                .putLong(customer.getVersion() != null ? customer.getVersion() : 0);
+        putString(record, name);
+        putString(record, email);
+        appendBeforeCommit(List.of(seal(record)), List.of());
+    }
+
+    /**
+     * Cierra el segmento actual y empieza uno nuevo. Los registros escritos a partir de ahora
+     * van al segmento nuevo, de modo que los anteriores pueden borrarse cuando una instantánea
+     * tomada después de esta llamada se haya guardado.
+     *
+     * @return Número del segmento nuevo
+     * @throws IOException si no se puede crear el segmento
+     */
+    public long rotate() throws IOException {
+        lock.lock();
+        try {
+            roll();
+            return segment;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Borra los segmentos anteriores al indicado.
+     * @param firstKept Primer segmento que se conserva
+     * @return Número de segmentos borrados
+     * @throws IOException si no se puede borrar algún segmento
+     */
+    public int deleteBefore(long firstKept) throws IOException {
+        int deleted = 0;
+        for (Path path : segments()) {
+            if (number(path) < firstKept) {
+                Files.delete(path);
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    @PreDestroy
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (!open) {
+                return;
+            }
+            open = false;
+            pending.signalAll();
+            try {
+                force(buffer, written);
+            } finally {
+                flushed.signalAll();
+                channel.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Escribe los registros antes de confirmar la transacción actual, de modo que un error del
+     * diario la deshace. Si la transacción se deshace después de escribirlos, anota {@code undo}.
+     */
+    private void appendBeforeCommit(List<byte[]> records, List<byte[]> undo) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            append(records);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean appended;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                append(records);
+                appended = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (appended && status != STATUS_COMMITTED && !undo.isEmpty()) {
+                    try {
+                        append(undo);
+                    } catch (RuntimeException e) {
+                        log.error("No se pudo anotar en el diario la anulación de una transacción deshecha", e);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Copia los registros al segmento y, si el diario es síncrono, espera a que estén en disco.
+     */
+    private void append(List<byte[]> records) {
+        lock.lock();
+        try {
+            if (!open) {
+                throw new IllegalStateException("El diario de órdenes está cerrado");
+            }
+            checkFailure();
+            for (byte[] record : records) {
+                if (record.length + HEADER > segmentSize) {
+                    throw new IllegalArgumentException("Orden demasiado grande para el diario");
+                }
+                if (buffer.remaining() < record.length + HEADER) {
+                    roll();
+                }
+                buffer.put(record);
+                written += record.length;
+            }
+            long end = written;
+            pending.signal();
+            while (sync && durable < end) {
+                checkFailure();
+                if (!open) {
+                    throw new IllegalStateException("El diario de órdenes se ha cerrado");
+                }
+                flushed.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Escritura en el diario de órdenes interrumpida", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir en el diario de órdenes", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Fuerza a disco lo escrito desde la última vez, fuera del cerrojo para que
+     * las escrituras siguientes se acumulen mientras tanto.
+     */
+    private void flushLoop() {
+        while (true) {
+            long target;
+            MappedByteBuffer current;
+            lock.lock();
+            try {
+                while (open && failure == null && written == durable) {
+                    pending.await(1, TimeUnit.SECONDS);
+                }
+                if (!open || failure != null) {
+                    return;
+                }
+                target = written;
+                current = buffer;
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+            RuntimeException error = null;
+            try {
+                current.force();
+            } catch (RuntimeException e) {
+                error = e;
+            }
+            lock.lock();
+            try {
+                if (error != null) {
+                    fail(error);
+                } else {
+                    durable = Math.max(durable, target);
+                }
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Cierra el segmento actual, forzándolo a disco, y proyecta uno nuevo. Se llama con el cerrojo tomado.
+     */
+    private void roll() throws IOException {
+        if (buffer != null) {
+            try {
+                force(buffer, written);
+            } finally {
+                flushed.signalAll();
+            }
+            channel.close();
+        }
+        segment++;
+        Path path = directory.resolve(String.format("orders-%016d.journal", segment));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    }
+
+    /**
+     * Fuerza un segmento a disco con el cerrojo tomado y, si lo consigue, da por guardado
+     * todo lo escrito hasta {@code target}; si falla, registra el error.
+     */
+    private void force(MappedByteBuffer segmentBuffer, long target) {
+        checkFailure();
+        try {
+            segmentBuffer.force();
+        } catch (RuntimeException e) {
+            fail(e);
+            throw failure;
+        }
+        durable = Math.max(durable, target);
+    }
+
+    /**
+     * Registra el primer error al forzar el diario a disco. Se llama con el cerrojo tomado.
+     */
+    private void fail(RuntimeException error) {
+        if (failure == null) {
+            log.error("No se pudo forzar a disco el diario de órdenes; no se aceptan más escrituras", error);
+            failure = new UncheckedIOException("No se pudo forzar a disco el diario de órdenes",
+                    error instanceof UncheckedIOException unchecked ? unchecked.getCause() : new IOException(error));
+        }
+    }
+
+    /**
+     * Lanza el error registrado si algún {@code force()} ha fallado. Se llama con el cerrojo tomado.
+     */
+    private void checkFailure() {
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private List<Path> segments() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().matches("orders-\\d{16}\\.journal"))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo listar el diario de órdenes " + directory, e);
+        }
+    }
+
+    private static long number(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring("orders-".length(), name.length() - ".journal".length()));
+    }
+
+    private static byte[] encodeDeleted(Integer orderId) {
+        ByteBuffer record = ByteBuffer.allocate(HEADER + 5);
+        record.position(HEADER);
+        record.put(DELETED).putInt(orderId);
+        return seal(record);
+    }
+
+    private static byte[] encodeCreated(Order order) {
+        List<OrderItem> items = order.getItems();
+        ByteBuffer record = ByteBuffer.allocate(HEADER + 33 + items.size() * 16);
+        record.position(HEADER);
+        LocalDateTime creationDate = order.getCreationDate();
+        record.put(CREATED)
+                .putInt(order.getId())
+                .putInt(order.getCustomer().getId())
+                .putLong(creationDate.toEpochSecond(ZoneOffset.UTC))
+                .putInt(creationDate.getNano())
+                .putLong(order.getTotal().getCents())
+                .putInt(items.size());
+        for (OrderItem item : items) {
+            record.putInt(item.getCafe().getId())
+                    .putInt(item.getCantidad())
+                    .putLong(item.getPrecio().getCents());
+        }
+        return seal(record);
+    }
+
+    /**
+     * Completa la cabecera (longitud y CRC) de un registro cuyo contenido empieza tras ella.
+     */
+    private static byte[] seal(ByteBuffer record) {
+        int length = record.position() - HEADER;
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), HEADER, length);
+        record.putInt(0, length).putInt(4, (int) crc.getValue());
+        return record.array();
+    }
+
+    private static List<Entry> readSegment(Path path) {
+        List<Entry> entries = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            CRC32C crc = new CRC32C();
+            while (buffer.remaining() >= HEADER) {
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    break;
+                }
+                ByteBuffer payload = buffer.slice(buffer.position(), length);
+                crc.reset();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    log.warn("Registro incompleto en {}; se ignora el resto del segmento", path);
+                    break;
+                }
+                entries.add(decode(payload));
+                buffer.position(buffer.position() + length);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el segmento " + path, e);
+        }
+        return entries;
+    }
+
+    private static Entry decode(ByteBuffer payload) {
+        byte type = payload.get();
+        int id = payload.getInt();
+        if (type == DELETED) {
+            return new Entry(type, id, null, null, null);
+        }
+        if (type == CAFE_CREATED) {
+            long version = payload.getLong();
+            Money precio = Money.ofCents(payload.getLong());
+            Cafe cafe = new Cafe(id, getString(payload), getString(payload), precio);
+            cafe.setVersion(version);
+            return new Entry(type, id, null, cafe, null);
+        }
+        if (type == CUSTOMER_CREATED) {
+            long version = payload.getLong();
+            Customer customer = new Customer(id, getString(payload), getString(payload));
+            customer.setVersion(version);
+            return new Entry(type, id, null, null, customer);
+        }
+        Customer customer = new Customer();
+        customer.setId(payload.getInt());
+        LocalDateTime creationDate = LocalDateTime.ofEpochSecond(payload.getLong(), payload.getInt(), ZoneOffset.UTC);
+        Money total = Money.ofCents(payload.getLong());
+        int count = payload.getInt();
+        List<OrderItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Cafe cafe = new Cafe();
+            cafe.setId(payload.getInt());
+            int cantidad = payload.getInt();
+            items.add(new OrderItem(null, cafe, cantidad, Money.ofCents(payload.getLong())));
+        }
+        Order order = new Order(id, customer, items);
+        order.setCreationDate(creationDate);
+        order.setTotal(total);
+        return new Entry(type, id, order, null, null);
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int length(byte[] value) {
+        return 4 + (value != null ? value.length : 0);
+    }
+
+    private static void putString(ByteBuffer record, byte[] value) {
+        if (value == null) {
+            record.putInt(-1);
+        } else {
+            record.putInt(value.length).put(value);
+        }
+    }
+
+    private static String getString(ByteBuffer payload) {
+        int length = payload.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        payload.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Registro del diario: una orden creada, la eliminación de una orden, o un café o cliente creado.
+     */
+    public static final class Entry {
+        private final byte type;
+        private final int id;
+        private final Order order;
+        private final Cafe cafe;
+        private final Customer customer;
+
+        Entry(byte type, int id, Order order, Cafe cafe, Customer customer) {
+            this.type = type;
+            this.id = id;
+            this.order = order;
+            this.cafe = cafe;
+            this.customer = customer;
+        }
+
+        /**
+         * Obtiene el ID de la orden, café o cliente del registro.
+         * @return ID
+         */
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * Obtiene la orden creada.
+         * @return Orden creada, o null si el registro no es una orden creada
+         */
+        public Order getOrder() {
+            return order;
+        }
+
+        /**
+         * Obtiene el café creado.
+         * @return Café creado, o null si el registro no es un café
+         */
+        public Cafe getCafe() {
+            return cafe;
+        }
+
+        /**
+         * Obtiene el cliente creado.
+         * @return Cliente creado, o null si el registro no es un cliente
+         */
+        public Customer getCustomer() {
+            return customer;
+        }
+
+        /**
+         * Indica si el registro es la eliminación de una orden.
+         * @return true si la orden se eliminó
+         */
+        public boolean isDeleted() {
+            return type == DELETED;
+        }
+
+        /**
+         * Indica si el registro es de una orden, creada o eliminada.
+         * @return true si el registro es de una orden
+         */
+        public boolean isOrder() {
+            return type == CREATED || type == DELETED;
+        }
+    }
+}
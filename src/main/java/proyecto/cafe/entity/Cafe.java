@@ -1,17 +1,20 @@
 package proyecto.cafe.entity;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import proyecto.cafe.money.Money;
 
 /**
  * Representa un café en el sistema.
  * Esta entidad almacena la información básica de un café,
  * incluyendo su nombre, descripción y precio.
  * @author Maria
- * @version 1.2
+ * @version 1.4
  */
 @Entity
 @Table(name = "cafes")
@@ -21,7 +24,11 @@ public class Cafe {
     private Integer id;
     private String nombre;
     private String descripcion;
-    private Double precio;
+    @Column(precision = 10, scale = Money.SCALE)
+    private Money precio;
+
+    @Version
+    private Long version;
 
     /**
      * Constructor por defecto.
@@ -36,7 +43,7 @@ public class Cafe {
      * @param descripcion Descripción detallada del café
      * @param precio Precio del café
      */
-    public Cafe(Integer id, String nombre, String descripcion, Double precio) {
+    public Cafe(Integer id, String nombre, String descripcion, Money precio) {
         this.id = id;
         this.nombre = nombre;
         this.descripcion = descripcion;
@@ -95,7 +102,7 @@ public class Cafe {
      * Obtiene el precio del café.
      * @return Precio del café
      */
-    public Double getPrecio() {
+    public Money getPrecio() {
         return precio;
     }
 
@@ -103,7 +110,23 @@ public class Cafe {
      * Establece el precio del café.
      * @param precio Nuevo precio del café
      */
-    public void setPrecio(Double precio) {
+    public void setPrecio(Money precio) {
         this.precio = precio;
     }
+
+    /**
+     * Obtiene la versión del café, que se incrementa con cada actualización.
+     * @return Versión del café, o null si aún no se ha guardado
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * Establece la versión del café sobre la que se aplica una actualización.
+     * @param version Versión leída por el cliente
+     */
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
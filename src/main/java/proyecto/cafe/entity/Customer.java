@@ -8,7 +8,7 @@ import jakarta.persistence.*;
  * incluyendo su nombre y correo electrónico.
  * 
  * @author Maria
- * @version 1.3
+ * @version 1.4
  */
 @Entity
 @Table(name = "customers")
@@ -23,6 +23,9 @@ public class Customer {
     @Column(nullable = false, unique = true)
     private String email;
 
+    @Version
+    private Long version;
+
     /**
      * Constructor por defecto.
      */
@@ -88,4 +91,20 @@ public class Customer {
     public void setEmail(String email) {
         this.email = email;
     }
+
+    /**
+     * Obtiene la versión del cliente, que se incrementa con cada actualización.
+     * @return Versión del cliente, o null si aún no se ha guardado
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * Establece la versión del cliente sobre la que se aplica una actualización.
+     * @param version Versión leída por el cliente
+     */
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -1,6 +1,7 @@
 package proyecto.cafe.entity;
 
 import jakarta.persistence.*;
+import proyecto.cafe.money.Money;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -12,10 +13,13 @@ import java.util.List;
  * incluyendo el cliente, los items y el total.
  * 
  * @author Maria
- * @version 1.5
+ * @version 1.7
  */
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    @Index(name = "idx_orders_creation_date_id", columnList = "creationDate, id"),
+    @Index(name = "idx_orders_customer_creation_date_id", columnList = "customer_id, creationDate, id")
+})
 public class Order {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -29,7 +33,8 @@ public class Order {
     @JoinColumn(name = "order_id")
     private List<OrderItem> items = new ArrayList<>();
 
-    private Double total;
+    @Column(precision = 12, scale = Money.SCALE)
+    private Money total;
 
     @Column(nullable = false)
     private LocalDateTime creationDate;
@@ -58,16 +63,23 @@ public class Order {
     /**
      * Calcula el total de la orden.
      * Multiplica el precio unitario por la cantidad de cada item
-     * y suma todos los subtotales.
+     * y suma todos los subtotales en céntimos, sin redondeos ni objetos intermedios.
+     * 
+     * @throws ArithmeticException si el total desborda un long de céntimos
      */
     public void calculateTotal() {
+        long cents = 0;
         if (items != null) {
-            this.total = items.stream()
-                .filter(item -> item.getPrecio() != null)
-                .mapToDouble(item -> item.getPrecio() * item.getCantidad())
-                .sum();
-        } else {
-            this.total = 0.0;
+            for (OrderItem item : items) {
+                Money precio = item.getPrecio();
+                Integer cantidad = item.getCantidad();
+                if (precio != null && cantidad != null) {
+                    cents = Math.addExact(cents, Math.multiplyExact(precio.getCents(), (long) cantidad));
+                }
+            }
+        }
+        if (total == null || total.getCents() != cents) {
+            this.total = Money.ofCents(cents);
         }
     }
 
@@ -124,7 +136,7 @@ public class Order {
      * Obtiene el total de la orden.
      * @return Total de la orden
      */
-    public Double getTotal() {
+    public Money getTotal() {
         return total;
     }
 
@@ -132,7 +144,7 @@ public class Order {
      * Establece el total de la orden.
      * @param total Nuevo total de la orden
      */
-    public void setTotal(Double total) {
+    public void setTotal(Money total) {
         this.total = total;
     }
 
@@ -1,6 +1,7 @@
 package proyecto.cafe.entity;
 
 import jakarta.persistence.*;
+import proyecto.cafe.money.Money;
 
 /**
  * Representa un item individual dentro de una orden.
@@ -8,10 +9,13 @@ import jakarta.persistence.*;
  * incluyendo el café, la cantidad y el precio unitario.
  * 
  * @author Maria
- * @version 1.5
+ * @version 1.7
  */
 @Entity
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = {
+    @Index(name = "idx_order_items_order_cafe", columnList = "order_id, cafe_id"),
+    @Index(name = "idx_order_items_cafe", columnList = "cafe_id")
+})
 public class OrderItem {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -22,7 +26,8 @@ public class OrderItem {
     private Cafe cafe;
     
     private Integer cantidad;
-    private Double precio;
+    @Column(precision = 10, scale = Money.SCALE)
+    private Money precio;
 
     /**
      * Constructor por defecto.
@@ -37,7 +42,7 @@ public class OrderItem {
      * @param cantidad Cantidad del café
      * @param precio Precio unitario del café
      */
-    public OrderItem(Integer id, Cafe cafe, Integer cantidad, Double precio) {
+    public OrderItem(Integer id, Cafe cafe, Integer cantidad, Money precio) {
         this.id = id;
         this.cafe = cafe;
         this.cantidad = cantidad;
@@ -96,7 +101,7 @@ public class OrderItem {
      * Obtiene el precio unitario del café.
      * @return Precio unitario
      */
-    public Double getPrecio() {
+    public Money getPrecio() {
         return precio;
     }
 
@@ -104,7 +109,7 @@ public class OrderItem {
      * Establece el precio unitario del café.
      * @param precio Nuevo precio unitario
      */
-    public void setPrecio(Double precio) {
+    public void setPrecio(Money precio) {
         this.precio = precio;
     }
 }
\ No newline at end of file
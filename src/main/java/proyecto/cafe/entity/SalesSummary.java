@@ -0,0 +1,94 @@
+package proyecto.cafe.entity;
+
+import jakarta.persistence.*;
+import proyecto.cafe.money.Money;
+
+import java.time.LocalDate;
+
+/**
+ * Representa un agregado precalculado de ventas.
+ * Cada fila acumula los ingresos y la cantidad vendida de un café a un cliente
+ * en un día concreto, de modo que los informes se obtienen sumando estas filas
+ * sin recorrer el historial de órdenes.
+ * 
+ * @author Maria
+ * @version 1.1
+ */
+@Entity
+@Table(name = "sales_summary", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_sales_summary_day_cafe_customer", columnNames = {"sales_date", "cafe_id", "customer_id"})
+})
+public class SalesSummary {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Column(name = "cafe_id", nullable = false)
+    private Integer cafeId;
+
+    @Column(name = "customer_id", nullable = false)
+    private Integer customerId;
+
+    @Column(nullable = false, precision = 15, scale = Money.SCALE)
+    private Money revenue;
+
+    @Column(nullable = false)
+    private Long quantity;
+
+    /**
+     * Constructor por defecto.
+     */
+    public SalesSummary() {
+    }
+
+    /**
+     * Obtiene el identificador único del agregado.
+     * @return ID del agregado
+     */
+    public Integer getId() {
+        return id;
+    }
+
+    /**
+     * Obtiene el día al que corresponde el agregado.
+     * @return Día de las ventas
+     */
+    public LocalDate getSalesDate() {
+        return salesDate;
+    }
+
+    /**
+     * Obtiene el ID del café vendido.
+     * @return ID del café
+     */
+    public Integer getCafeId() {
+        return cafeId;
+    }
+
+    /**
+     * Obtiene el ID del cliente comprador.
+     * @return ID del cliente
+     */
+    public Integer getCustomerId() {
+        return customerId;
+    }
+
+    /**
+     * Obtiene los ingresos acumulados.
+     * @return Ingresos
+     */
+    public Money getRevenue() {
+        return revenue;
+    }
+
+    /**
+     * Obtiene la cantidad acumulada de unidades vendidas.
+     * @return Cantidad vendida
+     */
+    public Long getQuantity() {
+        return quantity;
+    }
+}
@@ -0,0 +1,215 @@
+package proyecto.cafe.intake;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import proyecto.cafe.entity.Cafe;
+import proyecto.cafe.entity.Customer;
+import proyecto.cafe.entity.Order;
+import proyecto.cafe.entity.OrderItem;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Diario local de solo escritura al final para las órdenes recibidas en modo asíncrono.
+ * Cada orden aceptada se anota antes de confirmarla al cliente y se marca como
+ * procesada cuando el lote que la contiene termina, de modo que tras una caída
+ * se pueden volver a encolar las órdenes que no llegaron a guardarse.
+ * 
+ * Formato (una línea por registro, campos separados por tabuladores):
+ * - {@code A ticket fecha cliente cafe:cantidad,...}: orden aceptada
+ * - {@code D ticket}: orden procesada (guardada o rechazada)
+ * 
+ * Las escrituras se serializan con un {@link ReentrantLock} en lugar de {@code synchronized}
+ * para no bloquear el hilo portador cuando se llama desde hilos virtuales.
+ * 
+ * @author Maria
+ * @version 1.1
+ */
+public class OrderIntakeJournal implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderIntakeJournal.class);
+
+    private final Path path;
+    private final boolean sync;
+    private final ReentrantLock lock = new ReentrantLock();
+    private FileChannel channel;
+
+    /**
+     * Abre (o crea) el diario.
+     * @param path Ruta del fichero
+     * @param sync Si es true, cada escritura se fuerza a disco antes de devolver
+     * @throws IOException si no se puede abrir el fichero
+     */
+    public OrderIntakeJournal(Path path, boolean sync) throws IOException {
+        this.path = path;
+        this.sync = sync;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        this.channel.position(channel.size());
+    }
+
+    /**
+     * Lee el diario y devuelve las órdenes aceptadas que no se marcaron como procesadas,
+     * en el orden en que se recibieron. Las líneas incompletas o corruptas se ignoran.
+     * 
+     * @return Órdenes pendientes indexadas por ticket
+     * @throws IOException si no se puede leer el fichero
+     */
+    public Map<String, Order> replay() throws IOException {
+        lock.lock();
+        try {
+            Map<String, Order> pending = new LinkedHashMap<>();
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split("\t");
+                    try {
+                        if (fields.length == 5 && fields[0].equals("A")) {
+                            pending.put(fields[1], decode(fields));
+                        } else if (fields.length == 2 && fields[0].equals("D")) {
+                            pending.remove(fields[1]);
+                        } else if (!line.isEmpty()) {
+                            log.warn("Registro del diario de órdenes ignorado: {}", line);
+                        }
+                    } catch (RuntimeException e) {
+                        log.warn("Registro del diario de órdenes ignorado: {}", line);
+                    }
+                }
+            }
+            return pending;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Anota una orden aceptada.
+     * @param ticketId Ticket de la orden
+     * @param order Orden aceptada
+     * @throws IOException si no se puede escribir
+     */
+    public void appendAccepted(String ticketId, Order order) throws IOException {
+        lock.lock();
+        try {
+            StringBuilder line = new StringBuilder(64)
+                    .append("A\t").append(ticketId)
+                    .append('\t').append(order.getCreationDate())
+                    .append('\t').append(order.getCustomer().getId())
+                    .append('\t');
+            List<OrderItem> items = order.getItems();
+            for (int i = 0; i < items.size(); i++) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                line.append(items.get(i).getCafe().getId()).append(':').append(items.get(i).getCantidad());
+            }
+            write(line.append('\n'));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marca como procesadas las órdenes indicadas con una única escritura.
+     * @param ticketIds Tickets procesados
+     * @throws IOException si no se puede escribir
+     */
+    public void appendDone(Collection<String> ticketIds) throws IOException {
+        lock.lock();
+        try {
+            if (ticketIds.isEmpty()) {
+                return;
+            }
+            StringBuilder lines = new StringBuilder(ticketIds.size() * 40);
+            for (String ticketId : ticketIds) {
+                lines.append("D\t").append(ticketId).append('\n');
+            }
+            write(lines);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Vacía el diario. Solo debe llamarse cuando no quedan órdenes pendientes.
+     * @throws IOException si no se puede truncar el fichero
+     */
+    public void truncate() throws IOException {
+        lock.lock();
+        try {
+            channel.truncate(0);
+            channel.position(0);
+            if (sync) {
+                channel.force(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Obtiene el tamaño actual del diario.
+     * @return Tamaño en bytes
+     * @throws IOException si no se puede consultar
+     */
+    public long size() throws IOException {
+        lock.lock();
+        try {
+            return channel.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(CharSequence text) throws IOException {
+        ByteBuffer buffer = StandardCharsets.UTF_8.encode(text.toString());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (sync) {
+            channel.force(false);
+        }
+    }
+
+    private static Order decode(String[] fields) {
+        List<OrderItem> items = new ArrayList<>();
+        for (String item : fields[4].split(",")) {
+            int colon = item.indexOf(':');
+            Cafe cafe = new Cafe();
+            cafe.setId(Integer.valueOf(item.substring(0, colon)));
+            items.add(new OrderItem(null, cafe, Integer.valueOf(item.substring(colon + 1)), null));
+        }
+        Customer customer = new Customer();
+        customer.setId(Integer.valueOf(fields[3]));
+        Order order = new Order(null, customer, items);
+        order.setCreationDate(LocalDateTime.parse(fields[2]));
+        return order;
+    }
+}
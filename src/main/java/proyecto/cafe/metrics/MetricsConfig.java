@@ -0,0 +1,63 @@
+package proyecto.cafe.metrics;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuración de las métricas de la aplicación.
+ * Activa la anotación {@code @Timed} en los servicios y envuelve el origen de
+ * datos para contabilizar y cronometrar cada sentencia SQL ejecutada
+ * (y, bajo demanda, capturarla sin ejecutarla, ver {@link StatementCapture},
+ * o trazarla en las peticiones muestreadas, ver {@link QueryTracer}).
+ * 
+ * @author Maria
+ * @version 1.2
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Aspecto que registra un temporizador para los métodos anotados con {@code @Timed}.
+     * @param registry Registro de métricas
+     * @return Aspecto de temporización
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    /**
+     * Envuelve cada {@link DataSource} en un proxy que notifica las sentencias ejecutadas.
+     * El registro de métricas se resuelve de forma diferida para no adelantar su creación.
+     * @param registry Proveedor del registro de métricas
+     * @return Post-procesador de orígenes de datos
+     */
+    @Bean
+    public static BeanPostProcessor queryMetricsDataSourcePostProcessor(ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(new QueryMetricsListener(registry))
+                            .listener(new StatementCapture())
+                            .listener(new QueryTracer())
+                            .proxyResultSet()
+                            .jdbcProxyFactory(new QueryTracer.ProxyFactory())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,60 @@
+package proyecto.cafe.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escucha las sentencias ejecutadas contra la base de datos y publica
+ * su número y duración, además de acumularlas en el contador de la petición actual.
+ * 
+ * @author Maria
+ * @version 1.0
+ */
+public class QueryMetricsListener implements QueryExecutionListener {
+
+    private final ObjectProvider<MeterRegistry> registry;
+
+    /**
+     * Constructor con el proveedor del registro de métricas.
+     * @param registry Proveedor del registro de métricas
+     */
+    public QueryMetricsListener(ObjectProvider<MeterRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        RequestQueryCounter.increment();
+        MeterRegistry meterRegistry = registry.getIfAvailable();
+        if (meterRegistry == null) {
+            return;
+        }
+        String batch = String.valueOf(execInfo.isBatch());
+        String success = String.valueOf(execInfo.isSuccess());
+        Counter.builder("cafe.db.queries")
+                .description("Sentencias SQL ejecutadas")
+                .tag("batch", batch)
+                .tag("success", success)
+                .register(meterRegistry)
+                .increment();
+        Timer.builder("cafe.db.query.duration")
+                .description("Duración de las sentencias SQL")
+                .tag("batch", batch)
+                .tag("success", success)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(execInfo.getElapsedTime(), TimeUnit.MILLISECONDS);
+    }
+}
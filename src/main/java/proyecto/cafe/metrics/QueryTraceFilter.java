@@ -0,0 +1,71 @@
+package proyecto.cafe.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Filtro que decide qué peticiones HTTP se trazan con {@link QueryTracer}.
+ * Se traza un porcentaje de las peticiones, configurable con
+ * {@code cafe.diagnostics.query-trace.sample-rate} (0 desactiva la traza, 1 traza todas)
+ * y modificable en caliente con {@link #setSampleRate(double)}.
+ *
+ * @author Maria
+ * @version 1.0
+ */
+@Component
+public class QueryTraceFilter extends OncePerRequestFilter {
+
+    private volatile double sampleRate;
+
+    /**
+     * Constructor con la proporción de peticiones trazadas al arrancar.
+     * @param sampleRate Proporción entre 0 y 1
+     */
+    public QueryTraceFilter(@Value("${cafe.diagnostics.query-trace.sample-rate:0}") double sampleRate) {
+        setSampleRate(sampleRate);
+    }
+
+    /**
+     * Obtiene la proporción de peticiones que se trazan.
+     * @return Proporción entre 0 y 1
+     */
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Cambia la proporción de peticiones que se trazan.
+     * @param sampleRate Proporción entre 0 y 1
+     * @throws IllegalArgumentException si está fuera del rango [0, 1]
+     */
+    public void setSampleRate(double sampleRate) {
+        if (!(sampleRate >= 0 && sampleRate <= 1)) {
+            throw new IllegalArgumentException("La proporción de muestreo debe estar entre 0 y 1");
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        double rate = sampleRate;
+        if (rate <= 0 || ThreadLocalRandom.current().nextDouble() >= rate) {
+            chain.doFilter(request, response);
+            return;
+        }
+        QueryTracer.start(request.getMethod() + " " + request.getRequestURI());
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            QueryTracer.finish();
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package proyecto.cafe.metrics;
+
+import net.ttddyy.dsproxy.ConnectionInfo;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ProxyConfig;
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+import net.ttddyy.dsproxy.proxy.ResultSetProxyLogicFactory;
+import net.ttddyy.dsproxy.proxy.SimpleResultSetProxyLogic;
+import net.ttddyy.dsproxy.proxy.jdk.JdkJdbcProxyFactory;
+import net.ttddyy.dsproxy.proxy.jdk.ResultSetInvocationHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Traza estructurada de las sentencias SQL de una petición muestreada.
+ * Para cada sentencia registra su huella (el SQL normalizado, sin literales),
+ * la duración, las filas leídas o modificadas y el método de la aplicación que la lanzó,
+ * y las escribe en el log al terminar la petición (logger {@code proyecto.cafe.metrics.QueryTracer}).
+ * Fuera de {@link #start(String)} y {@link #finish()} no tiene ningún efecto, y los
+ * {@link ResultSet} solo se envuelven para contar filas mientras hay una traza activa.
+ *
+ * @author Maria
+ * @version 1.0
+ */
+public class QueryTracer implements QueryExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryTracer.class);
+
+    /** Máximo de sentencias que se conservan por petición. */
+    static final int MAX_STATEMENTS = 500;
+
+    private static final ThreadLocal<Trace> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    /**
+     * Comienza a trazar las sentencias del hilo actual.
+     * @param request Descripción de la petición (método y ruta)
+     */
+    public static void start(String request) {
+        CURRENT.set(new Trace(request));
+    }
+
+    /**
+     * Deja de trazar y escribe en el log las sentencias registradas.
+     */
+    public static void finish() {
+        Trace trace = CURRENT.get();
+        CURRENT.remove();
+        if (trace == null) {
+            return;
+        }
+        for (Entry entry : trace.entries) {
+            log.info("request=\"{}\" method={} fingerprint={} durationMs={} rows={} batch={} success={} sql=\"{}\"",
+                    trace.request, entry.caller, entry.fingerprint, entry.durationMs, entry.rows(),
+                    entry.batch, entry.success, entry.sql);
+        }
+        if (trace.dropped > 0) {
+            log.info("request=\"{}\" droppedStatements={}", trace.request, trace.dropped);
+        }
+    }
+
+    /**
+     * Indica si el hilo actual está trazando sentencias.
+     * @return true si hay una traza activa
+     */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Normaliza una sentencia para agrupar las que solo difieren en sus valores:
+     * sustituye literales por {@code ?}, reduce las listas {@code IN (?, ?, ...)} y los espacios.
+     * @param sql Sentencia SQL
+     * @return Sentencia normalizada
+     */
+    static String normalize(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = IN_LIST.matcher(normalized).replaceAll("(?...)");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim().toLowerCase();
+    }
+
+    /**
+     * Calcula la huella de una sentencia: un hash corto de su forma normalizada.
+     * @param sql Sentencia SQL
+     * @return Huella en hexadecimal
+     */
+    static String fingerprint(String sql) {
+        return String.format("%08x", normalize(sql).hashCode());
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Trace trace = CURRENT.get();
+        if (trace == null) {
+            return;
+        }
+        RowCounter counter = trace.pendingRows;
+        trace.pendingRows = null;
+        if (queryInfoList.isEmpty()) {
+            return;
+        }
+        if (trace.entries.size() >= MAX_STATEMENTS) {
+            trace.dropped++;
+            return;
+        }
+        String sql = queryInfoList.get(0).getQuery();
+        Entry entry = new Entry(normalize(sql), fingerprint(sql), caller(), execInfo.getElapsedTime(),
+                execInfo.isBatch(), execInfo.isSuccess());
+        entry.counter = counter;
+        entry.updated = updateCount(execInfo.getResult());
+        trace.entries.add(entry);
+    }
+
+    private static long updateCount(Object result) {
+        if (result instanceof Number number) {
+            return number.longValue();
+        }
+        long total = 0;
+        if (result instanceof int[] counts) {
+            for (int count : counts) {
+                total += Math.max(count, 0);
+            }
+        } else if (result instanceof long[] counts) {
+            for (long count : counts) {
+                total += Math.max(count, 0);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Primer método de la aplicación en la pila, fuera de este paquete y de los proxies de Spring.
+     */
+    private static String caller() {
+        Optional<StackWalker.StackFrame> frame = STACK_WALKER.walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith("proyecto.cafe.")
+                        && !f.getClassName().startsWith("proyecto.cafe.metrics.")
+                        && !f.getClassName().contains("$$"))
+                .findFirst());
+        return frame.map(f -> {
+            String className = f.getClassName();
+            return className.substring(className.lastIndexOf('.') + 1) + "." + f.getMethodName();
+        }).orElse("-");
+    }
+
+    /**
+     * Fábrica de proxies JDBC que solo envuelve los {@link ResultSet} cuando el hilo
+     * está trazando, de modo que las peticiones no muestreadas no pagan el coste del proxy.
+     * El envoltorio cuenta las filas leídas con {@code next()}.
+     */
+    public static class ProxyFactory extends JdkJdbcProxyFactory {
+        @Override
+        public ResultSet createResultSet(ResultSet resultSet, ConnectionInfo connectionInfo, ProxyConfig proxyConfig) {
+            Trace trace = CURRENT.get();
+            if (trace == null) {
+                return resultSet;
+            }
+            RowCounter counter = new RowCounter();
+            trace.pendingRows = counter;
+            ResultSetProxyLogicFactory logic = (target, connection, config) ->
+                    new SimpleResultSetProxyLogic(target, connection, config) {
+                        @Override
+                        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                            Object result = super.invoke(proxy, method, args);
+                            if (Boolean.TRUE.equals(result) && "next".equals(method.getName())) {
+                                counter.rows++;
+                            }
+                            return result;
+                        }
+                    };
+            return (ResultSet) Proxy.newProxyInstance(ProxyJdbcObject.class.getClassLoader(),
+                    new Class<?>[]{ProxyJdbcObject.class, ResultSet.class},
+                    new ResultSetInvocationHandler(logic, resultSet, connectionInfo, proxyConfig));
+        }
+    }
+
+    private static final class RowCounter {
+        private long rows;
+    }
+
+    private static final class Trace {
+        private final String request;
+        private final List<Entry> entries = new ArrayList<>();
+        private RowCounter pendingRows;
+        private int dropped;
+
+        Trace(String request) {
+            this.request = request;
+        }
+    }
+
+    private static final class Entry {
+        private final String sql;
+        private final String fingerprint;
+        private final String caller;
+        private final long durationMs;
+        private final boolean batch;
+        private final boolean success;
+        private RowCounter counter;
+        private long updated;
+
+        Entry(String sql, String fingerprint, String caller, long durationMs, boolean batch, boolean success) {
+            this.sql = sql;
+            this.fingerprint = fingerprint;
+            this.caller = caller;
+            this.durationMs = durationMs;
+            this.batch = batch;
+            this.success = success;
+        }
+
+        long rows() {
+            return counter != null ? counter.rows : updated;
+        }
+    }
+}
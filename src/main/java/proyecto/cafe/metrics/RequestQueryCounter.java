@@ -0,0 +1,43 @@
+package proyecto.cafe.metrics;
+
+/**
+ * Contador de sentencias SQL asociado al hilo que atiende la petición actual.
+ * Solo cuenta mientras hay una petición activa (entre {@link #start()} y {@link #stop()}).
+ * 
+ * @author Maria
+ * @version 1.0
+ */
+public final class RequestQueryCounter {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    private RequestQueryCounter() {
+    }
+
+    /**
+     * Comienza a contar las sentencias del hilo actual.
+     */
+    public static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    /**
+     * Suma una sentencia al contador del hilo actual, si está activo.
+     */
+    public static void increment() {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+    }
+
+    /**
+     * Deja de contar y devuelve el número de sentencias ejecutadas.
+     * @return Número de sentencias desde {@link #start()}, o 0 si no estaba activo
+     */
+    public static int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count != null ? count[0] : 0;
+    }
+}
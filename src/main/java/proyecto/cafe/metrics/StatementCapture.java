@@ -0,0 +1,128 @@
+package proyecto.cafe.metrics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Captura la primera sentencia SQL que ejecutaría el hilo actual, con sus parámetros,
+ * e impide que llegue a ejecutarse. Permite obtener el SQL que genera una consulta
+ * del repositorio (por ejemplo, para analizar su plan con EXPLAIN) sin leer datos.
+ * Fuera de {@link #capture(Runnable)} no tiene ningún efecto.
+ * 
+ * @author Maria
+ * @version 1.0
+ */
+public class StatementCapture implements QueryExecutionListener {
+
+    private static final ThreadLocal<CapturedStatement[]> CAPTURED = new ThreadLocal<>();
+
+    /**
+     * Ejecuta una acción y devuelve la primera sentencia SQL que intenta ejecutar.
+     * La sentencia no se ejecuta: la acción termina en ese punto con una excepción
+     * que se descarta.
+     * 
+     * @param action Acción que ejecuta la consulta
+     * @return Sentencia capturada, o null si la acción no ejecutó ninguna
+     * @throws RuntimeException si la acción falla antes de ejecutar una sentencia
+     */
+    public static CapturedStatement capture(Runnable action) {
+        CapturedStatement[] holder = new CapturedStatement[1];
+        CAPTURED.set(holder);
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            if (holder[0] == null || !causedByCapture(e)) {
+                throw e;
+            }
+        } finally {
+            CAPTURED.remove();
+        }
+        return holder[0];
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        CapturedStatement[] holder = CAPTURED.get();
+        if (holder == null || holder[0] != null || queryInfoList.isEmpty()) {
+            return;
+        }
+        QueryInfo query = queryInfoList.get(0);
+        List<List<ParameterSetOperation>> parameters = query.getParametersList();
+        holder[0] = new CapturedStatement(query.getQuery(),
+                parameters.isEmpty() ? List.of() : toArguments(parameters.get(0)));
+        throw new Captured();
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    private static List<Object> toArguments(List<ParameterSetOperation> operations) {
+        Object[] arguments = new Object[0];
+        for (ParameterSetOperation operation : operations) {
+            Object[] args = operation.getArgs();
+            if (args.length < 2 || !(args[0] instanceof Integer)) {
+                continue;
+            }
+            int index = (Integer) args[0];
+            if (index > arguments.length) {
+                arguments = Arrays.copyOf(arguments, index);
+            }
+            arguments[index - 1] = operation.getMethod().getName().equals("setNull") ? null : args[1];
+        }
+        return new ArrayList<>(Arrays.asList(arguments));
+    }
+
+    private static boolean causedByCapture(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof Captured) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sentencia SQL capturada con sus parámetros posicionales.
+     */
+    public static final class CapturedStatement {
+        private final String sql;
+        private final List<Object> parameters;
+
+        CapturedStatement(String sql, List<Object> parameters) {
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+
+        /**
+         * Obtiene el SQL de la sentencia.
+         * @return SQL con marcadores {@code ?}
+         */
+        public String getSql() {
+            return sql;
+        }
+
+        /**
+         * Obtiene los valores de los parámetros, en orden.
+         * @return Parámetros de la sentencia
+         */
+        public List<Object> getParameters() {
+            return parameters;
+        }
+    }
+
+    /**
+     * Interrumpe la ejecución de la sentencia capturada.
+     */
+    private static final class Captured extends RuntimeException {
+        Captured() {
+            super("Sentencia capturada", null, false, false);
+        }
+    }
+}
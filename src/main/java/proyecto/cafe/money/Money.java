@@ -0,0 +1,131 @@
+package proyecto.cafe.money;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Importe monetario en euros representado en punto fijo como un número entero de céntimos.
+ * Las operaciones son exactas (sin errores de redondeo binario) y lanzan
+ * {@link ArithmeticException} si el resultado desborda un {@code long}.
+ * En JSON se serializa como un número decimal con dos cifras, por ejemplo {@code 2.50}.
+ * 
+ * @author Maria
+ * @version 1.0
+ */
+public final class Money implements Comparable<Money> {
+
+    /**
+     * Número de cifras decimales (céntimos).
+     */
+    public static final int SCALE = 2;
+
+    /**
+     * Importe cero.
+     */
+    public static final Money ZERO = new Money(0);
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    /**
+     * Crea un importe a partir de céntimos.
+     * @param cents Importe en céntimos
+     * @return Importe
+     */
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    /**
+     * Crea un importe a partir de un valor decimal en euros,
+     * redondeando al céntimo más cercano (mitad hacia arriba).
+     * @param amount Importe en euros
+     * @return Importe, o null si el valor es null
+     * @throws ArithmeticException si el importe no cabe en un long de céntimos
+     */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Money of(BigDecimal amount) {
+        if (amount == null) {
+            return null;
+        }
+        return ofCents(amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Crea un importe a partir de un valor decimal en euros.
+     * @param amount Importe en euros
+     * @return Importe
+     */
+    public static Money of(String amount) {
+        return of(new BigDecimal(amount));
+    }
+
+    /**
+     * Obtiene el importe en céntimos.
+     * @return Céntimos
+     */
+    public long getCents() {
+        return cents;
+    }
+
+    /**
+     * Obtiene el importe en euros como decimal con dos cifras.
+     * @return Importe en euros
+     */
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    /**
+     * Suma otro importe.
+     * @param other Importe a sumar
+     * @return Suma de ambos importes
+     */
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    /**
+     * Multiplica el importe por una cantidad.
+     * @param quantity Cantidad
+     * @return Importe multiplicado
+     */
+    public Money times(long quantity) {
+        return ofCents(Math.multiplyExact(cents, quantity));
+    }
+
+    /**
+     * Indica si el importe es cero.
+     * @return true si es cero
+     */
+    public boolean isZero() {
+        return cents == 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Money && ((Money) o).cents == cents);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -0,0 +1,27 @@
+package proyecto.cafe.money;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Convierte los atributos {@link Money} de las entidades en columnas decimales (euros con dos cifras).
+ * Se aplica automáticamente a todos los atributos de tipo {@link Money}.
+ * 
+ * @author Maria
+ * @version 1.0
+ */
+@Converter(autoApply = true)
+public class MoneyConverter implements AttributeConverter<Money, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Money money) {
+        return money == null ? null : money.toBigDecimal();
+    }
+
+    @Override
+    public Money convertToEntityAttribute(BigDecimal value) {
+        return Money.of(value);
+    }
+}
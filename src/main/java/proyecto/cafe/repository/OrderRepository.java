@@ -5,8 +5,12 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
-import proyecto.cafe.entity.Customer;
+import proyecto.cafe.dto.OrderSummary;
+import org.springframework.data.repository.query.Param;
 import proyecto.cafe.entity.Order;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -15,17 +19,20 @@ import java.util.List;
  * sobre la entidad Order.
  * 
  * @author Maria
- * @version 1.3
+ * @version 1.5
  */
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Integer> {
     /**
      * Busca todas las órdenes asociadas a un cliente específico.
      * 
-     * @param customer Cliente del cual se desean obtener las órdenes
+     * Filtra por la clave foránea, sin necesidad de una entidad Customer ni de unir la tabla de clientes.
+     * 
+     * @param customerId ID del cliente del cual se desean obtener las órdenes
      * @return Lista de órdenes del cliente
      */
-    List<Order> findByCustomer(Customer customer);
+    @Query("SELECT o FROM Order o WHERE o.customer.id = :customerId")
+    List<Order> findByCustomerId(@Param("customerId") Integer customerId);
 
     /**
      * Obtiene todas las órdenes incluyendo la información del cliente.
@@ -47,4 +54,59 @@ public interface OrderRepository extends JpaRepository<Order, Integer> {
      */
     @Query("SELECT o FROM Order o LEFT JOIN FETCH o.customer")
     Page<Order> findAll(Pageable pageable);
+
+    /**
+     * Obtiene los IDs de la primera página del listado por cursor, ordenado por fecha de creación e ID.
+     * No ejecuta consulta COUNT.
+     * 
+     * @param pageable Límite de resultados (solo se utiliza el tamaño)
+     * @return Lista de IDs de órdenes
+     */
+    @Query("SELECT o.id FROM Order o ORDER BY o.creationDate, o.id")
+    List<Integer> findFirstIdsByKeyset(Pageable pageable);
+
+    /**
+     * Obtiene los IDs de las órdenes posteriores a una posición (creationDate, id) dada.
+     * La condición se resuelve sobre el índice (creation_date, id), evitando
+     * el recorrido de las filas anteriores que implica un OFFSET.
+     * 
+     * @param creationDate Fecha de creación de la última orden vista
+     * @param id ID de la última orden vista
+     * @param pageable Límite de resultados (solo se utiliza el tamaño)
+     * @return Lista de IDs de órdenes
+     */
+    @Query("SELECT o.id FROM Order o " +
+           "WHERE o.creationDate > :creationDate OR (o.creationDate = :creationDate AND o.id > :id) " +
+           "ORDER BY o.creationDate, o.id")
+    List<Integer> findIdsAfterKeyset(@Param("creationDate") LocalDateTime creationDate,
+                                     @Param("id") Integer id,
+                                     Pageable pageable);
+
+    /**
+     * Obtiene las órdenes indicadas junto con su cliente, sus items y el café de cada item.
+     * Segunda fase del listado paginado: carga el grafo completo de una página
+     * en una única consulta, evitando una consulta de items por orden.
+     * El orden del resultado no está garantizado.
+     * 
+     * @param ids IDs de las órdenes a cargar
+     * @return Lista de órdenes con sus asociaciones inicializadas
+     */
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.customer " +
+           "LEFT JOIN FETCH o.items i LEFT JOIN FETCH i.cafe WHERE o.id IN :ids")
+    List<Order> findAllWithItemsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Obtiene de forma paginada el historial resumido de órdenes de un cliente,
+     * de la más reciente a la más antigua. El número de items se calcula en SQL
+     * y no se cargan las entidades de la orden.
+     * 
+     * @param customerId ID del cliente
+     * @param pageable Configuración de la paginación (número de página y tamaño)
+     * @return Página de resúmenes de órdenes
+     */
+    @Query(value = "SELECT new proyecto.cafe.dto.OrderSummary(o.id, o.creationDate, o.total, COUNT(i)) " +
+                   "FROM Order o LEFT JOIN o.items i WHERE o.customer.id = :customerId " +
+                   "GROUP BY o.id, o.creationDate, o.total ORDER BY o.creationDate DESC, o.id DESC",
+           countQuery = "SELECT COUNT(o) FROM Order o WHERE o.customer.id = :customerId")
+    Page<OrderSummary> findSummariesByCustomerId(@Param("customerId") Integer customerId, Pageable pageable);
 }
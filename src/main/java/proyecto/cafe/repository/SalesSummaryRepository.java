@@ -0,0 +1,55 @@
+package proyecto.cafe.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import proyecto.cafe.entity.SalesSummary;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repositorio para los agregados de ventas.
+ * Las consultas de informes leen únicamente de la tabla de agregados.
+ * Cada fila del resultado contiene la clave de agrupación, los ingresos y la cantidad.
+ * 
+ * @author Maria
+ * @version 1.0
+ */
+@Repository
+public interface SalesSummaryRepository extends JpaRepository<SalesSummary, Integer> {
+
+    /**
+     * Obtiene las ventas agrupadas por día en un rango de fechas.
+     * 
+     * @param from Día inicial (inclusive)
+     * @param to Día final (inclusive)
+     * @return Filas [día, ingresos, cantidad]
+     */
+    @Query("SELECT s.salesDate, SUM(s.revenue), SUM(s.quantity) FROM SalesSummary s " +
+           "WHERE s.salesDate BETWEEN :from AND :to GROUP BY s.salesDate ORDER BY s.salesDate")
+    List<Object[]> sumByDay(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Obtiene las ventas agrupadas por café en un rango de fechas.
+     * 
+     * @param from Día inicial (inclusive)
+     * @param to Día final (inclusive)
+     * @return Filas [ID del café, ingresos, cantidad]
+     */
+    @Query("SELECT s.cafeId, SUM(s.revenue), SUM(s.quantity) FROM SalesSummary s " +
+           "WHERE s.salesDate BETWEEN :from AND :to GROUP BY s.cafeId ORDER BY s.cafeId")
+    List<Object[]> sumByCafe(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Obtiene las ventas agrupadas por cliente en un rango de fechas.
+     * 
+     * @param from Día inicial (inclusive)
+     * @param to Día final (inclusive)
+     * @return Filas [ID del cliente, ingresos, cantidad]
+     */
+    @Query("SELECT s.customerId, SUM(s.revenue), SUM(s.quantity) FROM SalesSummary s " +
+           "WHERE s.salesDate BETWEEN :from AND :to GROUP BY s.customerId ORDER BY s.customerId")
+    List<Object[]> sumByCustomer(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -0,0 +1,424 @@
+package proyecto.cafe.search;
+
+import org.springframework.stereotype.Component;
+import proyecto.cafe.entity.Customer;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice en memoria para la búsqueda incremental (typeahead) de clientes
+ * por nombre y correo electrónico.
+ * 
+ * Cada cliente se indexa por los trigramas de su texto normalizado (minúsculas
+ * y sin acentos) y por los prefijos de una y dos letras de cada palabra.
+ * Las consultas de tres o más caracteres buscan coincidencias por subcadena
+ * recorriendo la lista de candidatos más corta de sus trigramas; las de uno o dos
+ * caracteres solo encuentran palabras que empiezan por ellos (por ejemplo, "an"
+ * encuentra "Ana" y "ana@cafe.es", pero no "Juana"), porque indexar todas sus
+ * subcadenas multiplicaría el tamaño del índice y devolvería casi todos los clientes.
+ * Las listas de candidatos son arrays de enteros y los textos se guardan en arrays
+ * indexados por ID, para mantener acotado el consumo de memoria con millones de clientes.
+ * 
+ * Las modificaciones y bajas no eliminan en el momento las entradas antiguas de las
+ * listas: cada candidato se verifica contra el texto actual antes de devolverlo, y las
+ * entradas obsoletas se cuentan. Cuando superan a las vigentes (y a {@link #MIN_COMPACTION}),
+ * las listas se reconstruyen a partir de los textos actuales, con un coste amortizado
+ * constante por modificación.
+ * Los candidatos se recorren del más reciente al más antiguo (tras una reconstrucción,
+ * del ID mayor al menor) y, para acotar el tiempo de respuesta con textos muy frecuentes,
+ * el recorrido se limita a {@link #MAX_SCAN} candidatos una vez reunidos suficientes resultados.
+ * 
+ * @author Maria
+ * @version 1.2
+ */
+@Component
+public class CustomerSearchIndex {
+
+    /** Separador entre nombre y email en el texto indexado; no aparece en los datos. */
+    private static final char SEPARATOR = '\u0001';
+
+    /**
+     * Número de candidatos a partir del cual la búsqueda se detiene si ya tiene
+     * suficientes resultados, aunque no todos sean del mejor nivel de relevancia.
+     */
+    private static final int MAX_SCAN = 10_000;
+
+    /** Marca que distingue las claves de prefijo de palabra de las de trigrama. */
+    private static final long PREFIX_KEY = 1L << 62;
+
+    /** Entradas obsoletas por debajo de las cuales nunca se reconstruyen las listas. */
+    private static final int MIN_COMPACTION = 4096;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private String[] names = new String[1024];
+    private String[] emails = new String[1024];
+    private String[] texts = new String[1024];
+    private int[] postingCounts = new int[1024];
+    private int size;
+    private long livePostings;
+    private long stalePostings;
+
+    /**
+     * Añade o reemplaza un cliente en el índice.
+     * @param customer Cliente a indexar
+     */
+    public void put(Customer customer) {
+        put(customer.getId(), customer.getName(), customer.getEmail());
+    }
+
+    /**
+     * Añade o reemplaza un cliente en el índice.
+     * @param id ID del cliente
+     * @param name Nombre del cliente
+     * @param email Correo electrónico del cliente
+     */
+    public void put(int id, String name, String email) {
+        String text = normalize(name) + SEPARATOR + normalize(email);
+        lock.writeLock().lock();
+        try {
+            ensureCapacity(id);
+            if (texts[id] == null) {
+                size++;
+            } else {
+                retire(id);
+            }
+            names[id] = name;
+            emails[id] = email;
+            texts[id] = text;
+            postingCounts[id] = index(id, text);
+            livePostings += postingCounts[id];
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Modifica el nombre y/o el email de un cliente indexado; los valores null se conservan.
+     * Si el cliente no está en el índice no hace nada.
+     * @param id ID del cliente
+     * @param name Nuevo nombre, o null para conservarlo
+     * @param email Nuevo email, o null para conservarlo
+     */
+    public void patch(int id, String name, String email) {
+        lock.writeLock().lock();
+        try {
+            if (id < 0 || id >= texts.length || texts[id] == null) {
+                return;
+            }
+            put(id, name != null ? name : names[id], email != null ? email : emails[id]);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Elimina un cliente del índice.
+     * @param id ID del cliente
+     */
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            if (id >= 0 && id < texts.length && texts[id] != null) {
+                retire(id);
+                texts[id] = null;
+                names[id] = null;
+                emails[id] = null;
+                size--;
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Vacía el índice por completo.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            names = new String[1024];
+            emails = new String[1024];
+            texts = new String[1024];
+            postingCounts = new int[1024];
+            size = 0;
+            livePostings = 0;
+            stalePostings = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca clientes cuyo nombre o email contengan el texto indicado.
+     * Se devuelven primero las coincidencias al inicio del nombre, después al inicio
+     * del email, después al inicio de cualquier palabra y por último el resto.
+     * Con uno o dos caracteres solo se buscan palabras que empiecen por ellos.
+     * 
+     * @param query Texto a buscar
+     * @param limit Número máximo de resultados
+     * @return Clientes encontrados
+     */
+    public List<Customer> search(String query, int limit) {
+        String q = normalize(query).trim();
+        if (q.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            Postings candidates = smallestPostings(q);
+            if (candidates == null) {
+                return new ArrayList<>();
+            }
+            // Resultados por nivel de relevancia; basta con guardar "limit" de cada uno
+            int[][] ranked = new int[4][limit];
+            int[] counts = new int[4];
+            int found = 0;
+            int scanned = 0;
+            int previous = -1;
+            for (int i = candidates.size - 1; i >= 0 && counts[0] < limit; i--) {
+                if (++scanned > MAX_SCAN && found >= limit) {
+                    break;
+                }
+                int id = candidates.ids[i];
+                String text = texts[id];
+                if (text == null || id == previous) {
+                    continue;
+                }
+                previous = id;
+                int rank = rank(text, q);
+                if (rank >= 0 && counts[rank] < limit && !contains(ranked[rank], counts[rank], id)) {
+                    ranked[rank][counts[rank]++] = id;
+                    found++;
+                }
+            }
+
+            List<Customer> result = new ArrayList<>(limit);
+            for (int rank = 0; rank < ranked.length; rank++) {
+                for (int j = 0; j < counts[rank] && result.size() < limit; j++) {
+                    int id = ranked[rank][j];
+                    result.add(new Customer(id, names[id], emails[id]));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Indica si un cliente está en el índice.
+     * @param id ID del cliente
+     * @return true si el cliente está indexado
+     */
+    public boolean contains(int id) {
+        lock.readLock().lock();
+        try {
+            return id >= 0 && id < texts.length && texts[id] != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtiene el número de clientes indexados.
+     * @return Número de clientes
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtiene el número de entradas de las listas de candidatos, vigentes y obsoletas.
+     * @return Número de entradas
+     */
+    long postingCount() {
+        lock.readLock().lock();
+        try {
+            long count = 0;
+            for (Postings list : postings.values()) {
+                count += list.size;
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean contains(int[] ids, int count, int id) {
+        for (int i = 0; i < count; i++) {
+            if (ids[i] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Postings smallestPostings(String q) {
+        // Sin trigramas, solo se dispone de los prefijos de palabra
+        if (q.length() < 3) {
+            return postings.get(prefixKey(q, 0, q.length()));
+        }
+        Postings smallest = null;
+        for (int i = 0; i + 3 <= q.length(); i++) {
+            Postings list = postings.get(trigramKey(q, i));
+            if (list == null) {
+                return null;
+            }
+            if (smallest == null || list.size < smallest.size) {
+                smallest = list;
+            }
+        }
+        return smallest;
+    }
+
+    /**
+     * Calcula la relevancia de una coincidencia: 0 inicio del nombre, 1 inicio del email,
+     * 2 inicio de palabra, 3 cualquier posición, -1 sin coincidencia.
+     */
+    private static int rank(String text, String q) {
+        int index = text.indexOf(q);
+        if (index < 0) {
+            return -1;
+        }
+        if (index == 0) {
+            return 0;
+        }
+        int separator = text.indexOf(SEPARATOR);
+        if (text.startsWith(q, separator + 1)) {
+            return 1;
+        }
+        while (index >= 0) {
+            if (!Character.isLetterOrDigit(text.charAt(index - 1))) {
+                return 2;
+            }
+            index = text.indexOf(q, index + 1);
+        }
+        return 3;
+    }
+
+    /**
+     * Añade el cliente a las listas de las claves de su texto.
+     * @return Número de entradas añadidas
+     */
+    private int index(int id, String text) {
+        int added = 0;
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            added += addPosting(trigramKey(text, i), id);
+        }
+        for (int i = 0; i < text.length(); i++) {
+            boolean wordStart = i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1));
+            if (wordStart && text.charAt(i) != SEPARATOR) {
+                added += addPosting(prefixKey(text, i, 1), id);
+                if (i + 1 < text.length()) {
+                    added += addPosting(prefixKey(text, i, 2), id);
+                }
+            }
+        }
+        return added;
+    }
+
+    private int addPosting(long key, int id) {
+        Postings list = postings.get(key);
+        if (list == null) {
+            list = new Postings();
+            postings.put(key, list);
+        }
+        return list.add(id) ? 1 : 0;
+    }
+
+    /**
+     * Marca como obsoletas las entradas del texto actual de un cliente.
+     */
+    private void retire(int id) {
+        livePostings -= postingCounts[id];
+        stalePostings += postingCounts[id];
+        postingCounts[id] = 0;
+    }
+
+    /**
+     * Reconstruye las listas de candidatos, en orden de ID, cuando las entradas
+     * obsoletas superan a las vigentes.
+     */
+    private void compactIfNeeded() {
+        if (stalePostings <= Math.max(MIN_COMPACTION, livePostings)) {
+            return;
+        }
+        postings.clear();
+        livePostings = 0;
+        stalePostings = 0;
+        for (int id = 0; id < texts.length; id++) {
+            if (texts[id] != null) {
+                postingCounts[id] = index(id, texts[id]);
+                livePostings += postingCounts[id];
+            }
+        }
+    }
+
+    private static long trigramKey(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    private static long prefixKey(String s, int i, int length) {
+        long key = PREFIX_KEY | ((long) length << 40) | ((long) s.charAt(i) << 16);
+        return length > 1 ? key | s.charAt(i + 1) : key;
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 127) {
+                return Normalizer.normalize(value, Normalizer.Form.NFD)
+                        .replaceAll("\\p{M}", "")
+                        .toLowerCase();
+            }
+        }
+        return value.toLowerCase();
+    }
+
+    private void ensureCapacity(int id) {
+        if (id >= texts.length) {
+            int capacity = Math.max(texts.length * 2, id + 1);
+            names = Arrays.copyOf(names, capacity);
+            emails = Arrays.copyOf(emails, capacity);
+            texts = Arrays.copyOf(texts, capacity);
+            postingCounts = Arrays.copyOf(postingCounts, capacity);
+        }
+    }
+
+    /**
+     * Lista creciente de IDs de clientes asociada a una clave del índice.
+     */
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        boolean add(int id) {
+            if (size > 0 && ids[size - 1] == id) {
+                return false;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+            return true;
+        }
+    }
+}
@@ -1,73 +1,231 @@
 package proyecto.cafe.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import proyecto.cafe.cache.CafeCache;
+import proyecto.cafe.dto.MenuItem;
+import proyecto.cafe.dto.MenuPayload;
+import proyecto.cafe.dto.RepriceRequest;
+import proyecto.cafe.embedded.OrderJournal;
 import proyecto.cafe.entity.Cafe;
 import proyecto.cafe.entity.Customer;
+import proyecto.cafe.money.Money;
 import proyecto.cafe.repository.CafeRepository;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
  * Servicio para la gestión de cafés en el sistema.
  * Proporciona métodos para realizar operaciones CRUD y consultas
- * sobre la entidad Cafe.
+ * sobre la entidad Cafe. Las altas, actualizaciones y actualizaciones parciales
+ * aplican las mismas validaciones de campos ({@link #validarCafe(Cafe, boolean)}).
  * 
  * @author Maria
- * @version 1.5
+ * @version 1.9
  */
 @Service
+@Timed(value = "cafe.service", histogram = true)
 public class CafeService {
 
     @Autowired
     private CafeRepository cafeRepository;
 
+    @Autowired
+    private CafeCache cafeCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /** Diario de órdenes del perfil embedded; null con el resto de perfiles. */
+    @Autowired(required = false)
+    private OrderJournal orderJournal;
+
+    private volatile MenuPayload menuPayload;
+
     /**
      * Crea un nuevo café en el sistema.
      * 
      * @param cafe Café a crear
      * @return Café creado con su ID asignado
+     * @throws IllegalArgumentException si algún dato está vacío o el precio no es positivo
      */
     @Transactional
     public Cafe crearCafe(Cafe cafe) {
-        if (cafe.getNombre() == null || cafe.getNombre().trim().isEmpty()) {
-            throw new IllegalArgumentException("El nombre del café no puede estar vacío");
+        validarCafe(cafe, false);
+        Cafe saved = cafeRepository.save(cafe);
+        cafeCache.invalidate(saved.getId());
+        if (orderJournal != null) {
+            orderJournal.recordCafeCreated(saved);
         }
-        if (cafe.getDescripcion() == null || cafe.getDescripcion() .trim().isEmpty()) {
-            throw new IllegalArgumentException("La descripción del café no puede estar vacío");
-        }
-        if (cafe.getPrecio() == null || cafe.getPrecio()== 0) {
-            throw new IllegalArgumentException("El precio  del café no puede estar vacío");
-        }
-        return cafeRepository.save(cafe);
+        return saved;
     }
 
     /**
      * Actualiza un café existente en el sistema.
+     * Si el café incluye su versión, la actualización solo se aplica si coincide
+     * con la almacenada.
      * 
      * @param cafe Café con los datos actualizados
      * @return Café actualizado
+     * @throws IllegalArgumentException si el café no existe, algún dato está vacío o el precio no es positivo
+     * @throws ObjectOptimisticLockingFailureException si el café ha cambiado desde que se leyó
      */
     @Transactional
     public Cafe actualizarCafe(Cafe cafe) {
-        if (!cafeRepository.existsById(cafe.getId())) {
-            throw new IllegalArgumentException("Café no encontrado");
+        validarCafe(cafe, false);
+        Cafe saved = cafeRepository.findById(cafe.getId())
+            .orElseThrow(() -> new IllegalArgumentException("Café no encontrado"));
+        if (cafe.getVersion() != null && !cafe.getVersion().equals(saved.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Cafe.class, cafe.getId());
+        }
+        saved.setNombre(cafe.getNombre());
+        saved.setDescripcion(cafe.getDescripcion());
+        saved.setPrecio(cafe.getPrecio());
+        cafeCache.invalidate(saved.getId());
+        return saved;
+    }
+
+    /**
+     * Actualiza parcialmente un café con una única sentencia UPDATE que solo
+     * modifica los campos indicados (los null se conservan) y comprueba la versión.
+     * 
+     * @param id ID del café
+     * @param changes Campos a modificar y versión leída por el cliente
+     * @return Nueva versión del café
+     * @throws IllegalArgumentException si el café no existe, no se indica ningún campo o alguno no es válido
+     * @throws ObjectOptimisticLockingFailureException si el café ha cambiado desde que se leyó
+     */
+    @Transactional
+    public long patchCafe(Integer id, Cafe changes) {
+        validarCafe(changes, true);
+        if (changes.getVersion() == null) {
+            throw new IllegalArgumentException("Debe indicarse la versión del café");
         }
-        if (cafe.getNombre() == null || cafe.getNombre().trim().isEmpty()) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("id", id)
+            .addValue("version", changes.getVersion());
+        StringBuilder sql = new StringBuilder("UPDATE cafes SET ");
+        if (changes.getNombre() != null) {
+            sql.append("nombre = :nombre, ");
+            params.addValue("nombre", changes.getNombre());
+        }
+        if (changes.getDescripcion() != null) {
+            sql.append("descripcion = :descripcion, ");
+            params.addValue("descripcion", changes.getDescripcion());
+        }
+        if (changes.getPrecio() != null) {
+            sql.append("precio = :precio, ");
+            params.addValue("precio", changes.getPrecio().toBigDecimal());
+        }
+        sql.append("version = version + 1 WHERE id = :id AND version = :version");
+        if (namedParameterJdbcTemplate.update(sql.toString(), params) == 0) {
+            if (!cafeRepository.existsById(id)) {
+                throw new IllegalArgumentException("Café no encontrado");
+            }
+            throw new ObjectOptimisticLockingFailureException(Cafe.class, id);
+        }
+        cafeCache.invalidate(id);
+        return changes.getVersion() + 1;
+    }
+
+    /**
+     * Valida los campos de un café: el nombre y la descripción no pueden estar vacíos
+     * y el precio debe ser mayor que cero. En una actualización parcial solo se validan
+     * los campos indicados, y debe indicarse al menos uno.
+     * 
+     * @param cafe Café o cambios a validar
+     * @param parcial true si los campos null se conservan en lugar de ser obligatorios
+     * @throws IllegalArgumentException si algún campo no es válido
+     */
+    public void validarCafe(Cafe cafe, boolean parcial) {
+        if (parcial && cafe.getNombre() == null && cafe.getDescripcion() == null && cafe.getPrecio() == null) {
+            throw new IllegalArgumentException("Debe indicarse al menos un campo a modificar");
+        }
+        if ((!parcial || cafe.getNombre() != null) && (cafe.getNombre() == null || cafe.getNombre().trim().isEmpty())) {
             throw new IllegalArgumentException("El nombre del café no puede estar vacío");
         }
-        if (cafe.getDescripcion() == null || cafe.getDescripcion() .trim().isEmpty()) {
-            throw new IllegalArgumentException("La descripción del café no puede estar vacío");
+        if ((!parcial || cafe.getDescripcion() != null) && (cafe.getDescripcion() == null || cafe.getDescripcion().trim().isEmpty())) {
+            throw new IllegalArgumentException("La descripción del café no puede estar vacía");
         }
-        if (cafe.getPrecio() == null || cafe.getPrecio()== 0) {
-            throw new IllegalArgumentException("El precio  del café no puede estar vacío");
+        if (!parcial || cafe.getPrecio() != null) {
+            if (cafe.getPrecio() == null) {
+                throw new IllegalArgumentException("El precio del café no puede estar vacío");
+            }
+            if (cafe.getPrecio().compareTo(Money.ZERO) <= 0) {
+                throw new IllegalArgumentException("El precio del café debe ser mayor que cero");
+            }
         }
-        return cafeRepository.save(cafe);
+    }
+
+    /**
+     * Cambia el precio de varios cafés con una única sentencia UPDATE.
+     * Los cafés se seleccionan por ID o por patrón de nombre, y el precio cambia en un
+     * porcentaje (redondeado al céntimo) o en un importe fijo. Los cafés cuyo precio
+     * resultante no sería positivo se dejan sin cambios. Cada café modificado incrementa
+     * su versión, y el catálogo en caché se invalida por completo.
+     * 
+     * @param request Selección de cafés y cambio de precio
+     * @return Número de cafés modificados
+     * @throws IllegalArgumentException si la selección o el cambio no son válidos
+     */
+    @Transactional
+    public int repriceCafes(RepriceRequest request) {
+        boolean byIds = request.getIds() != null && !request.getIds().isEmpty();
+        boolean byName = request.getNamePattern() != null && !request.getNamePattern().isBlank();
+        if (byIds == byName) {
+            throw new IllegalArgumentException("Debe indicarse una lista de IDs o un patrón de nombre, pero no ambos");
+        }
+        if ((request.getPercent() == null) == (request.getAmount() == null)) {
+            throw new IllegalArgumentException("Debe indicarse un porcentaje o un importe, pero no ambos");
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String newPrice;
+        if (request.getPercent() != null) {
+            if (request.getPercent().compareTo(BigDecimal.valueOf(-100)) <= 0) {
+                throw new IllegalArgumentException("El porcentaje debe ser mayor que -100");
+            }
+            newPrice = "ROUND(precio * :factor, " + Money.SCALE + ")";
+            params.addValue("factor", BigDecimal.ONE.add(request.getPercent().movePointLeft(2)));
+        } else {
+            newPrice = "precio + :amount";
+            params.addValue("amount", request.getAmount().toBigDecimal());
+        }
+        String where;
+        if (byIds) {
+            where = "id IN (:ids)";
+            params.addValue("ids", request.getIds());
+        } else {
+            where = "LOWER(nombre) LIKE :pattern";
+            params.addValue("pattern", request.getNamePattern().toLowerCase());
+        }
+        int updated = namedParameterJdbcTemplate.update(
+            "UPDATE cafes SET precio = " + newPrice + ", version = version + 1 " +
+            "WHERE " + where + " AND " + newPrice + " > 0", params);
+        if (updated > 0) {
+            cafeCache.invalidateAll();
+        }
+        return updated;
     }
 
     /**
@@ -78,16 +236,77 @@ public class CafeService {
     @Transactional
     public void eliminarCafe(Integer id) {
         cafeRepository.deleteById(id);
+        cafeCache.invalidate(id);
     }
 
     /**
      * Obtiene todos los cafés registrados en el sistema.
+     * Si no se solicita un orden concreto, la página se sirve desde la
+     * instantánea del menú en caché, ordenada por ID.
      * 
-     * @return Lista de todos los cafés
+     * @param pageable Configuración de la paginación
+     * @return Página de cafés
      */
     @Transactional(readOnly = true)
     public Page<Cafe> getAllCafes(Pageable pageable) {
-        return cafeRepository.findAll(pageable);
+        if (pageable.getSort().isSorted()) {
+            return cafeRepository.findAll(pageable);
+        }
+        List<Cafe> menu = getMenu();
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(menu);
+        }
+        int from = (int) Math.min(pageable.getOffset(), menu.size());
+        int to = Math.min(from + pageable.getPageSize(), menu.size());
+        return new PageImpl<>(menu.subList(from, to), pageable, menu.size());
+    }
+
+    /**
+     * Obtiene el menú completo de cafés ordenado por ID, desde la caché si está disponible.
+     * 
+     * @return Lista inmutable con todos los cafés
+     */
+    public List<Cafe> getMenu() {
+        return cafeCache.getMenu(() -> cafeRepository.findAll(Sort.by("id")));
+    }
+
+    /**
+     * Obtiene la versión actual del catálogo de cafés.
+     * 
+     * @return Versión del catálogo
+     */
+    public String getMenuVersion() {
+        return cafeCache.getVersion();
+    }
+
+    /**
+     * Obtiene el menú compacto (ID, nombre y precio de cada café) serializado en JSON.
+     * El resultado se guarda junto con la versión del catálogo y solo se vuelve a
+     * generar cuando ésta cambia.
+     * 
+     * @return Menú serializado y su versión
+     * @throws IllegalStateException si no se puede serializar el menú
+     */
+    public MenuPayload getMenuPayload() {
+        MenuPayload current = menuPayload;
+        String version = cafeCache.getVersion();
+        if (current != null && current.getVersion().equals(version)) {
+            return current;
+        }
+        List<MenuItem> items = new ArrayList<>();
+        for (Cafe cafe : getMenu()) {
+            items.add(new MenuItem(cafe.getId(), cafe.getNombre(), cafe.getPrecio()));
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("version", version);
+        body.put("cafes", items);
+        try {
+            current = new MenuPayload(version, objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Error al serializar el menú", e);
+        }
+        menuPayload = current;
+        return current;
     }
 
     /**
@@ -97,6 +316,26 @@ public class CafeService {
      * @return Optional que puede contener el café si existe
      */
     public Optional<Cafe> getCafeById(Integer id) {
-        return cafeRepository.findById(id);
+        return cafeCache.get(id, cafeRepository::findById);
+    }
+
+    /**
+     * Busca varios cafés por sus IDs. Los que no estén en caché se obtienen
+     * con una única consulta.
+     * 
+     * @param ids IDs de los cafés a buscar
+     * @return Mapa de cafés encontrados indexado por ID
+     */
+    public Map<Integer, Cafe> getCafesByIds(Collection<Integer> ids) {
+        return cafeCache.getAll(ids, cafeRepository::findAllById);
+    }
+
+    /**
+     * Obtiene los contadores de uso de la caché de cafés.
+     * 
+     * @return Mapa con aciertos, fallos, desalojos y tamaño
+     */
+    public Map<String, Long> getCacheStats() {
+        return cafeCache.getStats();
     }
 }
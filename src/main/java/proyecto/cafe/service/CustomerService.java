@@ -1,13 +1,25 @@
 package proyecto.cafe.service;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import proyecto.cafe.embedded.OrderJournal;
 import proyecto.cafe.entity.Customer;
 import proyecto.cafe.repository.CustomerRepository;
+import proyecto.cafe.search.CustomerSearchIndex;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -16,14 +28,28 @@ import java.util.Optional;
  * sobre la entidad Customer.
  * 
  * @author Maria
- * @version 1.5
+ * @version 1.7
  */
 @Service
+@Timed(value = "cafe.service", histogram = true)
 public class CustomerService {
 
     @Autowired
     private CustomerRepository customerRepository;
 
+    @Autowired
+    private CustomerSearchIndex customerSearchIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /** Diario de órdenes del perfil embedded; null con el resto de perfiles. */
+    @Autowired(required = false)
+    private OrderJournal orderJournal;
+
     /**
      * Obtiene todos los clientes registrados en el sistema de forma paginada.
      * 
@@ -61,29 +87,80 @@ public class CustomerService {
         if (customer.getEmail() == null || customer.getEmail().trim().isEmpty()) {
             throw new IllegalArgumentException("El email del cliente no puede estar vacío");
         }
-        return customerRepository.save(customer);
+        Customer saved = customerRepository.save(customer);
+        afterCommit(() -> customerSearchIndex.put(saved));
+        if (orderJournal != null) {
+            orderJournal.recordCustomerCreated(saved);
+        }
+        return saved;
     }
 
     /**
      * Actualiza un cliente existente en el sistema.
      * Valida que el cliente exista y que el nombre y email no estén vacíos.
+     * Si el cliente incluye su versión, la actualización solo se aplica si coincide
+     * con la almacenada.
      * 
      * @param customer Cliente con los datos actualizados
      * @return Cliente actualizado
      * @throws IllegalArgumentException si el cliente no existe o si el nombre o email están vacíos
+     * @throws ObjectOptimisticLockingFailureException si el cliente ha cambiado desde que se leyó
      */
     @Transactional
     public Customer updateCustomer(Customer customer) {
-        if (!customerRepository.existsById(customer.getId())) {
-            throw new IllegalArgumentException("Cliente no encontrado");
-        }
         if (customer.getName() == null || customer.getName().trim().isEmpty()) {
             throw new IllegalArgumentException("El nombre del cliente no puede estar vacío");
         }
         if (customer.getEmail() == null || customer.getEmail().trim().isEmpty()) {
             throw new IllegalArgumentException("El email del cliente no puede estar vacío");
         }
-        return customerRepository.save(customer);
+        Customer saved = customerRepository.findById(customer.getId())
+            .orElseThrow(() -> new IllegalArgumentException("Cliente no encontrado"));
+        if (customer.getVersion() != null && !customer.getVersion().equals(saved.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Customer.class, customer.getId());
+        }
+        saved.setName(customer.getName());
+        saved.setEmail(customer.getEmail());
+        afterCommit(() -> customerSearchIndex.put(saved));
+        return saved;
+    }
+
+    /**
+     * Actualiza parcialmente un cliente con una única sentencia UPDATE que solo
+     * modifica los campos indicados (los null se conservan) y comprueba la versión.
+     * 
+     * @param id ID del cliente
+     * @param changes Campos a modificar y versión leída por el cliente
+     * @return Nueva versión del cliente
+     * @throws IllegalArgumentException si el cliente no existe o no se indica ningún campo
+     * @throws ObjectOptimisticLockingFailureException si el cliente ha cambiado desde que se leyó
+     */
+    @Transactional
+    public long patchCustomer(Integer id, Customer changes) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("id", id)
+            .addValue("version", changes.getVersion());
+        StringBuilder sql = new StringBuilder("UPDATE customers SET ");
+        if (changes.getName() != null) {
+            sql.append("name = :name, ");
+            params.addValue("name", changes.getName());
+        }
+        if (changes.getEmail() != null) {
+            sql.append("email = :email, ");
+            params.addValue("email", changes.getEmail());
+        }
+        if (params.getValues().size() == 2) {
+            throw new IllegalArgumentException("Debe indicarse al menos un campo a modificar");
+        }
+        sql.append("version = version + 1 WHERE id = :id AND version = :version");
+        if (namedParameterJdbcTemplate.update(sql.toString(), params) == 0) {
+            if (!customerRepository.existsById(id)) {
+                throw new IllegalArgumentException("Cliente no encontrado");
+            }
+            throw new ObjectOptimisticLockingFailureException(Customer.class, id);
+        }
+        afterCommit(() -> customerSearchIndex.patch(id, changes.getName(), changes.getEmail()));
+        return changes.getVersion() + 1;
     }
 
     /**
@@ -99,6 +176,63 @@ public class CustomerService {
             throw new IllegalArgumentException("Cliente no encontrado");
         }
         customerRepository.deleteById(id);
+        afterCommit(() -> customerSearchIndex.remove(id));
+    }
+
+    /**
+     * Busca clientes cuyo nombre o email contengan el texto indicado,
+     * usando el índice en memoria (sin acceder a la base de datos).
+     * 
+     * @param query Texto a buscar (sin distinguir mayúsculas ni acentos)
+     * @param limit Número máximo de resultados
+     * @return Clientes encontrados, primero los que empiezan por el texto
+     */
+    public List<Customer> searchCustomers(String query, int limit) {
+        return customerSearchIndex.search(query, limit);
+    }
+
+    /**
+     * Comprueba si un cliente existe consultando primero el índice en memoria;
+     * solo accede a la base de datos si el cliente no está indexado.
+     * 
+     * @param id ID del cliente
+     * @return true si el cliente existe
+     */
+    public boolean customerExists(Integer id) {
+        if (id == null) {
+            return false;
+        }
+        return customerSearchIndex.contains(id) || customerRepository.existsById(id);
+    }
+
+    /**
+     * Carga todos los clientes en el índice de búsqueda al arrancar la aplicación.
+     * Lee solo las columnas necesarias, sin crear entidades.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadSearchIndex() {
+        customerSearchIndex.clear();
+        jdbcTemplate.query("SELECT id, name, email FROM customers", rs -> {
+            customerSearchIndex.put(rs.getInt("id"), rs.getString("name"), rs.getString("email"));
+        });
+    }
+
+    /**
+     * Ejecuta una acción tras el commit de la transacción actual, o inmediatamente si no hay transacción.
+     * 
+     * @param action Acción a ejecutar
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
 }
 
@@ -0,0 +1,293 @@
+package proyecto.cafe.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import proyecto.cafe.dto.StoredResponse;
+import proyecto.cafe.entity.Order;
+import proyecto.cafe.entity.OrderItem;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Servicio de claves de idempotencia para la creación de órdenes.
+ * La respuesta de cada petición con cabecera {@code Idempotency-Key} se guarda en la tabla
+ * {@code idempotency_keys}, en la misma transacción que la orden, y en un mapa en memoria
+ * acotado ({@code cafe.orders.idempotency.max-entries}) que se consulta primero.
+ * Las claves caducan pasado {@code cafe.orders.idempotency.ttl}; una tarea periódica
+ * las borra de la tabla.
+ *
+ * Antes de ejecutar la petición se reserva la clave insertando su fila con una respuesta
+ * pendiente; la petición solo se ejecuta si la inserción tiene éxito. Si dos peticiones con
+ * la misma clave llegan a la vez, la segunda choca con la clave primaria antes de crear
+ * o encolar nada y devuelve la respuesta de la primera, o la pendiente si aún no ha terminado.
+ *
+ * @author Maria
+ * @version 1.1
+ */
+@Service
+public class IdempotencyService {
+
+    /** Longitud máxima de una clave de idempotencia. */
+    public static final int MAX_KEY_LENGTH = 100;
+
+    private static final String SELECT_KEY =
+            "SELECT request_hash, status_code, location, body, created_at FROM idempotency_keys WHERE idem_key = :key";
+
+    private static final String INSERT_KEY =
+            "INSERT INTO idempotency_keys (idem_key, request_hash, status_code, location, body, created_at) " +
+            "VALUES (:key, :requestHash, :status, :location, :body, :createdAt)";
+
+    private static final String UPDATE_KEY =
+            "UPDATE idempotency_keys SET status_code = :status, location = :location, body = :body, created_at = :createdAt " +
+            "WHERE idem_key = :key";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Duration ttl;
+    private final Map<String, StoredResponse> responses;
+
+    /**
+     * Constructor que configura la caducidad de las claves y el tamaño del mapa en memoria.
+     * @param ttl Tiempo durante el que se conserva cada respuesta
+     * @param maxEntries Número máximo de respuestas en memoria
+     */
+    public IdempotencyService(@Value("${cafe.orders.idempotency.ttl:PT24H}") Duration ttl,
+                              @Value("${cafe.orders.idempotency.max-entries:100000}") int maxEntries) {
+        this.ttl = ttl;
+        this.responses = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Comprueba que una clave de idempotencia es válida.
+     * @param key Valor de la cabecera {@code Idempotency-Key}
+     * @throws IllegalArgumentException si está vacía o es demasiado larga
+     */
+    public void validateKey(String key) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(
+                    "La cabecera Idempotency-Key debe tener entre 1 y " + MAX_KEY_LENGTH + " caracteres");
+        }
+    }
+
+    /**
+     * Calcula la huella de una orden, para detectar una clave reutilizada con otra orden.
+     * Solo tiene en cuenta lo que envía el cliente: el cliente y los cafés y cantidades de los items.
+     * @param order Orden recibida
+     * @return Huella SHA-256 en hexadecimal
+     */
+    public String requestHash(Order order) {
+        StringBuilder canonical = new StringBuilder().append(order.getCustomer().getId());
+        for (OrderItem item : order.getItems()) {
+            canonical.append(';').append(item.getCafe() != null ? item.getCafe().getId() : null)
+                    .append('x').append(item.getCantidad());
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("No se pudo calcular la huella de la petición", e);
+        }
+    }
+
+    /**
+     * Busca la respuesta guardada para una clave, primero en memoria y después en la base de datos.
+     * @param key Clave de idempotencia
+     * @return Optional con la respuesta (pendiente si la petición original aún se procesa),
+     *         vacío si la clave no existe o ha caducado
+     */
+    public Optional<StoredResponse> find(String key) {
+        LocalDateTime cutoff = LocalDateTime.now().minus(ttl);
+        synchronized (responses) {
+            StoredResponse response = responses.get(key);
+            if (response != null && response.getCreatedAt().isAfter(cutoff)) {
+                meterRegistry.counter("cafe.orders.idempotency", "result", "replayed").increment();
+                return Optional.of(response);
+            }
+        }
+        List<StoredResponse> rows = jdbcTemplate.query(SELECT_KEY, new MapSqlParameterSource("key", key),
+                (rs, rowNum) -> new StoredResponse(rs.getString("request_hash"), rs.getInt("status_code"),
+                        rs.getString("location"), rs.getString("body"),
+                        rs.getTimestamp("created_at").toLocalDateTime()));
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        StoredResponse response = rows.get(0);
+        if (!response.getCreatedAt().isAfter(cutoff)) {
+            jdbcTemplate.update("DELETE FROM idempotency_keys WHERE idem_key = :key",
+                    new MapSqlParameterSource("key", key));
+            return Optional.empty();
+        }
+        if (!response.isPending()) {
+            remember(key, response);
+            meterRegistry.counter("cafe.orders.idempotency", "result", "replayed").increment();
+        }
+        return Optional.of(response);
+    }
+
+    /**
+     * Reserva la clave y, si la reserva tiene éxito, ejecuta la petición y guarda su respuesta,
+     * todo en la misma transacción. Si la petición falla, la transacción se deshace y la clave
+     * queda libre para reintentarla.
+     * Si otra petición con la misma clave la ha reservado, no se ejecuta la petición y se devuelve
+     * la respuesta de esa otra petición, pendiente si aún no ha terminado.
+     *
+     * @param key Clave de idempotencia
+     * @param requestHash Huella de la petición
+     * @param action Petición a ejecutar, transaccional; su cuerpo se guarda como JSON
+     * @return Respuesta guardada
+     */
+    public StoredResponse execute(String key, String requestHash, Supplier<ResponseEntity<?>> action) {
+        StoredResponse stored = transactionTemplate.execute(
+                status -> claim(key, requestHash) ? complete(key, requestHash, action.get()) : null);
+        if (stored == null) {
+            return claimedByOther(key, requestHash);
+        }
+        remember(key, stored);
+        meterRegistry.counter("cafe.orders.idempotency", "result", "stored").increment();
+        return stored;
+    }
+
+    /**
+     * Igual que {@link #execute}, para peticiones con efectos fuera de la base de datos que no se
+     * pueden deshacer (como encolar la orden): la reserva se confirma antes de ejecutar la petición,
+     * de modo que una petición repetida nunca llega a ejecutarse. Si la petición falla se borra la
+     * reserva; si la aplicación se detiene antes de guardar la respuesta, la clave queda pendiente
+     * hasta que caduca.
+     *
+     * @param key Clave de idempotencia
+     * @param requestHash Huella de la petición
+     * @param action Petición a ejecutar; su cuerpo se guarda como JSON
+     * @return Respuesta guardada
+     */
+    public StoredResponse executeAfterClaim(String key, String requestHash, Supplier<ResponseEntity<?>> action) {
+        if (!Boolean.TRUE.equals(transactionTemplate.execute(status -> claim(key, requestHash)))) {
+            return claimedByOther(key, requestHash);
+        }
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            jdbcTemplate.update("DELETE FROM idempotency_keys WHERE idem_key = :key",
+                    new MapSqlParameterSource("key", key));
+            throw e;
+        }
+        StoredResponse stored = transactionTemplate.execute(status -> complete(key, requestHash, response));
+        remember(key, stored);
+        meterRegistry.counter("cafe.orders.idempotency", "result", "stored").increment();
+        return stored;
+    }
+
+    /**
+     * Reserva la clave insertando su fila con una respuesta pendiente.
+     * Si otra transacción la está reservando, la inserción espera a que termine; si se agota
+     * la espera del bloqueo, la clave se trata como reservada por la otra petición.
+     * @return false si otra petición ya la ha reservado
+     */
+    private boolean claim(String key, String requestHash) {
+        StoredResponse pending = StoredResponse.pending(requestHash, LocalDateTime.now());
+        try {
+            jdbcTemplate.update(INSERT_KEY, parameters(key, pending).addValue("requestHash", requestHash));
+            return true;
+        } catch (DuplicateKeyException | PessimisticLockingFailureException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Guarda la respuesta de la petición en la fila de la clave reservada.
+     */
+    private StoredResponse complete(String key, String requestHash, ResponseEntity<?> response) {
+        StoredResponse result = new StoredResponse(requestHash, response.getStatusCode().value(),
+                response.getHeaders().getLocation() != null ? response.getHeaders().getLocation().toString() : null,
+                toJson(response.getBody()), LocalDateTime.now());
+        jdbcTemplate.update(UPDATE_KEY, parameters(key, result));
+        return result;
+    }
+
+    /**
+     * Respuesta de la petición que reservó la clave antes; si entretanto se ha borrado
+     * (porque falló o caducó), se trata como pendiente para que el cliente reintente.
+     */
+    private StoredResponse claimedByOther(String key, String requestHash) {
+        return find(key).orElseGet(() -> StoredResponse.pending(requestHash, LocalDateTime.now()));
+    }
+
+    private static MapSqlParameterSource parameters(String key, StoredResponse response) {
+        return new MapSqlParameterSource()
+                .addValue("key", key)
+                .addValue("status", response.getStatus())
+                .addValue("location", response.getLocation())
+                .addValue("body", response.getBody())
+                .addValue("createdAt", Timestamp.valueOf(response.getCreatedAt()));
+    }
+
+    /**
+     * Borra las claves caducadas de la memoria y de la base de datos.
+     * @return Número de claves borradas de la base de datos
+     */
+    @Scheduled(fixedDelayString = "${cafe.orders.idempotency.purge-interval:PT1H}",
+               initialDelayString = "${cafe.orders.idempotency.purge-interval:PT1H}")
+    public int purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(ttl);
+        synchronized (responses) {
+            Iterator<StoredResponse> it = responses.values().iterator();
+            while (it.hasNext() && !it.next().getCreatedAt().isAfter(cutoff)) {
+                it.remove();
+            }
+        }
+        return jdbcTemplate.update("DELETE FROM idempotency_keys WHERE created_at < :cutoff",
+                new MapSqlParameterSource("cutoff", Timestamp.valueOf(cutoff)));
+    }
+
+    private void remember(String key, StoredResponse response) {
+        synchronized (responses) {
+            responses.put(key, response);
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo guardar la respuesta", e);
+        }
+    }
+}
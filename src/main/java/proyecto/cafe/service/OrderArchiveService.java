@@ -0,0 +1,259 @@
+package proyecto.cafe.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import proyecto.cafe.dto.OrderSummary;
+import proyecto.cafe.entity.Cafe;
+import proyecto.cafe.entity.Customer;
+import proyecto.cafe.entity.Order;
+import proyecto.cafe.entity.OrderItem;
+import proyecto.cafe.money.Money;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Servicio de archivo de órdenes.
+ * Traslada periódicamente las órdenes anteriores al horizonte configurado
+ * ({@code cafe.orders.archive.after-days}) desde {@code orders}/{@code order_items}
+ * a {@code orders_archive}/{@code order_items_archive}, conservando sus IDs.
+ * El traslado se hace por bloques pequeños, cada uno en su propia transacción y con
+ * una pausa entre bloques, para no retener bloqueos que retrasen la creación de órdenes.
+ * Las órdenes archivadas siguen siendo accesibles por ID y en el historial del cliente.
+ * 
+ * @author Maria
+ * @version 1.0
+ */
+@Service
+public class OrderArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderArchiveService.class);
+
+    private static final String SELECT_ARCHIVABLE =
+            "SELECT id FROM orders WHERE creation_date < :cutoff ORDER BY creation_date, id LIMIT :limit";
+
+    private static final String COPY_ORDERS =
+            "INSERT INTO orders_archive (id, customer_id, total, creation_date) " +
+            "SELECT id, customer_id, total, creation_date FROM orders WHERE id IN (:ids)";
+
+    private static final String COPY_ITEMS =
+            "INSERT INTO order_items_archive (id, order_id, cafe_id, cantidad, precio) " +
+            "SELECT id, order_id, cafe_id, cantidad, precio FROM order_items WHERE order_id IN (:ids)";
+
+    private static final String SELECT_ORDERS =
+            "SELECT o.id, o.customer_id, c.name, c.email, o.total, o.creation_date, " +
+            "i.id AS item_id, i.cafe_id, i.cantidad, i.precio " +
+            "FROM orders_archive o LEFT JOIN customers c ON c.id = o.customer_id " +
+            "LEFT JOIN order_items_archive i ON i.order_id = o.id ";
+
+    private static final String SELECT_SUMMARIES =
+            "SELECT o.id, o.creation_date, o.total, " +
+            "(SELECT COUNT(*) FROM order_items_archive i WHERE i.order_id = o.id) AS item_count " +
+            "FROM orders_archive o WHERE o.customer_id = :customerId " +
+            "ORDER BY o.creation_date DESC, o.id DESC LIMIT :limit OFFSET :offset";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CafeService cafeService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${cafe.orders.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cafe.orders.archive.after-days:365}")
+    private int afterDays;
+
+    @Value("${cafe.orders.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${cafe.orders.archive.pause-ms:200}")
+    private long pauseMs;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * Ejecución periódica del archivo, si está activado con {@code cafe.orders.archive.enabled=true}.
+     */
+    @Scheduled(fixedDelayString = "${cafe.orders.archive.interval:PT1H}",
+               initialDelayString = "${cafe.orders.archive.interval:PT1H}")
+    public void scheduledArchive() {
+        if (enabled) {
+            archive();
+        }
+    }
+
+    /**
+     * Archiva todas las órdenes anteriores al horizonte, bloque a bloque.
+     * Si ya hay un archivo en curso, no hace nada.
+     * 
+     * @return Número de órdenes archivadas
+     */
+    public int archive() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(afterDays);
+            int total = 0;
+            while (true) {
+                Integer moved = transactionTemplate.execute(status -> archiveChunk(cutoff));
+                total += moved;
+                if (moved < batchSize) {
+                    break;
+                }
+                try {
+                    Thread.sleep(pauseMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            if (total > 0) {
+                log.info("Archivadas {} órdenes anteriores a {}", total, cutoff);
+                meterRegistry.counter("cafe.orders.archived").increment(total);
+            }
+            return total;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Busca una orden archivada por su ID.
+     * 
+     * @param id ID de la orden
+     * @return Orden archivada, o vacío si no existe
+     */
+    public Optional<Order> findById(Integer id) {
+        List<Order> orders = loadOrders("WHERE o.id = :id", new MapSqlParameterSource("id", id));
+        return orders.stream().findFirst();
+    }
+
+    /**
+     * Obtiene todas las órdenes archivadas de un cliente, de la más antigua a la más reciente.
+     * 
+     * @param customerId ID del cliente
+     * @return Órdenes archivadas del cliente
+     */
+    public List<Order> findByCustomer(Integer customerId) {
+        return loadOrders("WHERE o.customer_id = :customerId", new MapSqlParameterSource("customerId", customerId));
+    }
+
+    /**
+     * Cuenta las órdenes archivadas de un cliente.
+     * 
+     * @param customerId ID del cliente
+     * @return Número de órdenes archivadas
+     */
+    public long countByCustomer(Integer customerId) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders_archive WHERE customer_id = :customerId",
+                new MapSqlParameterSource("customerId", customerId), Long.class);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Obtiene el historial resumido de órdenes archivadas de un cliente, de la más reciente a la más antigua.
+     * 
+     * @param customerId ID del cliente
+     * @param offset Número de órdenes archivadas a saltar
+     * @param limit Número máximo de resúmenes
+     * @return Resúmenes de órdenes archivadas
+     */
+    public List<OrderSummary> findSummariesByCustomer(Integer customerId, long offset, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("customerId", customerId)
+                .addValue("limit", limit)
+                .addValue("offset", offset);
+        return jdbcTemplate.query(SELECT_SUMMARIES, params, (rs, rowNum) -> new OrderSummary(
+                rs.getInt("id"),
+                rs.getTimestamp("creation_date").toLocalDateTime(),
+                Money.of(rs.getBigDecimal("total")),
+                rs.getLong("item_count")));
+    }
+
+    /**
+     * Traslada un bloque de órdenes anteriores a la fecha de corte, con sus items.
+     * 
+     * @param cutoff Fecha de corte
+     * @return Número de órdenes trasladadas
+     */
+    private int archiveChunk(LocalDateTime cutoff) {
+        List<Integer> ids = jdbcTemplate.queryForList(SELECT_ARCHIVABLE, new MapSqlParameterSource()
+                .addValue("cutoff", Timestamp.valueOf(cutoff))
+                .addValue("limit", batchSize), Integer.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids);
+        jdbcTemplate.update(COPY_ORDERS, params);
+        jdbcTemplate.update(COPY_ITEMS, params);
+        jdbcTemplate.update("DELETE FROM order_items WHERE order_id IN (:ids)", params);
+        jdbcTemplate.update("DELETE FROM orders WHERE id IN (:ids)", params);
+        return ids.size();
+    }
+
+    /**
+     * Carga órdenes archivadas con su cliente y sus items en una sola consulta;
+     * los cafés se obtienen de la caché del catálogo.
+     */
+    private List<Order> loadOrders(String where, MapSqlParameterSource params) {
+        Map<Integer, Order> orders = new LinkedHashMap<>();
+        Set<Integer> cafeIds = new LinkedHashSet<>();
+        jdbcTemplate.query(SELECT_ORDERS + where + " ORDER BY o.creation_date, o.id, i.id", params, rs -> {
+            int id = rs.getInt("id");
+            Order order = orders.get(id);
+            if (order == null) {
+                Customer customer = new Customer(rs.getInt("customer_id"), rs.getString("name"), rs.getString("email"));
+                order = new Order(id, customer, new ArrayList<>());
+                order.setTotal(Money.of(rs.getBigDecimal("total")));
+                order.setCreationDate(rs.getTimestamp("creation_date").toLocalDateTime());
+                orders.put(id, order);
+            }
+            int itemId = rs.getInt("item_id");
+            if (!rs.wasNull()) {
+                Cafe cafe = new Cafe();
+                cafe.setId(rs.getInt("cafe_id"));
+                cafeIds.add(cafe.getId());
+                BigDecimal precio = rs.getBigDecimal("precio");
+                Integer cantidad = rs.getObject("cantidad", Integer.class);
+                order.getItems().add(new OrderItem(itemId, cafe, cantidad, Money.of(precio)));
+            }
+        });
+        if (!cafeIds.isEmpty()) {
+            Map<Integer, Cafe> cafes = cafeService.getCafesByIds(cafeIds);
+            for (Order order : orders.values()) {
+                for (OrderItem item : order.getItems()) {
+                    Cafe cafe = cafes.get(item.getCafe().getId());
+                    if (cafe != null) {
+                        item.setCafe(cafe);
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(orders.values());
+    }
+}
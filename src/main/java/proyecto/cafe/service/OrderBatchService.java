@@ -0,0 +1,236 @@
+package proyecto.cafe.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import proyecto.cafe.dto.OrderBatchResult;
+import proyecto.cafe.embedded.OrderJournal;
+import proyecto.cafe.entity.Cafe;
+import proyecto.cafe.entity.Customer;
+import proyecto.cafe.entity.Order;
+import proyecto.cafe.entity.OrderItem;
+import proyecto.cafe.money.Money;
+import proyecto.cafe.repository.CustomerRepository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Servicio para la importación masiva de órdenes.
+ * Valida clientes y cafés de todo el lote con consultas agrupadas e inserta
+ * las órdenes válidas y sus items mediante sentencias JDBC por lotes,
+ * sin pasar por el contexto de persistencia de Hibernate. Los agregados de
+ * ventas se actualizan una sola vez para todo el lote.
+ * Con el perfil {@code embedded}, las órdenes importadas se anotan en el {@link OrderJournal}.
+ * 
+ * @author Maria
+ * @version 1.2
+ */
+@Service
+public class OrderBatchService {
+
+    private static final String INSERT_ORDER =
+            "INSERT INTO orders (customer_id, total, creation_date) VALUES (:customerId, :total, :creationDate)";
+
+    private static final String INSERT_ITEM =
+            "INSERT INTO order_items (order_id, cafe_id, cantidad, precio) VALUES (:orderId, :cafeId, :cantidad, :precio)";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CafeService cafeService;
+
+    @Autowired
+    private SalesSummaryService salesSummaryService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** Diario de órdenes del perfil embedded; null con el resto de perfiles. */
+    @Autowired(required = false)
+    private OrderJournal orderJournal;
+
+    @Value("${cafe.orders.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Importa un lote de órdenes.
+     * Los registros no válidos se rechazan individualmente sin afectar al resto;
+     * los válidos se insertan en una única transacción.
+     * 
+     * @param orders Órdenes a importar
+     * @return Resultado de cada registro, en el mismo orden que la entrada
+     */
+    @Transactional
+    public List<OrderBatchResult> importOrders(List<Order> orders) {
+        return importOrders(orders, "batch", false);
+    }
+
+    /**
+     * Importa un lote de órdenes indicando su origen para las métricas.
+     * 
+     * @param orders Órdenes a importar
+     * @param source Origen de las órdenes (etiqueta "source" del contador cafe.orders)
+     * @param keepCreationDate Si es true se conserva la fecha de creación de cada orden
+     *                         (por ejemplo, la de su recepción); si no, se usa la fecha actual
+     * @return Resultado de cada registro, en el mismo orden que la entrada
+     */
+    @Transactional
+    public List<OrderBatchResult> importOrders(List<Order> orders, String source, boolean keepCreationDate) {
+        // Validar clientes y cafés de todo el lote de una sola vez
+        Set<Integer> customerIds = new HashSet<>();
+        Set<Integer> cafeIds = new HashSet<>();
+        for (Order order : orders) {
+            if (order == null) {
+                continue;
+            }
+            if (order.getCustomer() != null && order.getCustomer().getId() != null) {
+                customerIds.add(order.getCustomer().getId());
+            }
+            if (order.getItems() != null) {
+                for (OrderItem item : order.getItems()) {
+                    if (item != null && item.getCafe() != null && item.getCafe().getId() != null) {
+                        cafeIds.add(item.getCafe().getId());
+                    }
+                }
+            }
+        }
+        Set<Integer> existingCustomers = new HashSet<>();
+        for (Customer customer : customerRepository.findAllById(customerIds)) {
+            existingCustomers.add(customer.getId());
+        }
+        Map<Integer, Cafe> cafes = cafeService.getCafesByIds(cafeIds);
+
+        OrderBatchResult[] results = new OrderBatchResult[orders.size()];
+        List<Integer> accepted = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            String error = validate(order, existingCustomers, cafes);
+            if (error != null) {
+                results[i] = OrderBatchResult.rejected(i, error);
+                continue;
+            }
+            for (OrderItem item : order.getItems()) {
+                Cafe cafe = cafes.get(item.getCafe().getId());
+                item.setCafe(cafe);
+                item.setPrecio(cafe.getPrecio());
+            }
+            if (!keepCreationDate || order.getCreationDate() == null) {
+                order.setCreationDate(now);
+            }
+            order.calculateTotal();
+            accepted.add(i);
+        }
+
+        List<Order> created = new ArrayList<>(accepted.size());
+        for (int from = 0; from < accepted.size(); from += batchSize) {
+            List<Integer> chunk = accepted.subList(from, Math.min(from + batchSize, accepted.size()));
+            insertChunk(orders, chunk);
+            for (Integer i : chunk) {
+                Order order = orders.get(i);
+                created.add(order);
+                results[i] = OrderBatchResult.created(i, order.getId(), order.getTotal());
+            }
+        }
+        salesSummaryService.recordCreated(created);
+        if (orderJournal != null) {
+            orderJournal.recordCreated(created);
+        }
+        meterRegistry.counter("cafe.orders", "source", source, "result", "created").increment(created.size());
+        meterRegistry.counter("cafe.orders", "source", source, "result", "rejected").increment(orders.size() - created.size());
+        return List.of(results);
+    }
+
+    /**
+     * Comprueba que un registro del lote sea válido.
+     * 
+     * @param order Orden a validar
+     * @param existingCustomers IDs de clientes existentes
+     * @param cafes Cafés existentes indexados por ID
+     * @return Mensaje de error, o null si la orden es válida
+     */
+    private String validate(Order order, Set<Integer> existingCustomers, Map<Integer, Cafe> cafes) {
+        if (order == null || order.getCustomer() == null || order.getItems() == null || order.getItems().isEmpty()) {
+            return "La orden debe incluir un cliente y al menos un item";
+        }
+        if (!existingCustomers.contains(order.getCustomer().getId())) {
+            return "Cliente no encontrado: " + order.getCustomer().getId();
+        }
+        List<Integer> missing = new ArrayList<>();
+        for (OrderItem item : order.getItems()) {
+            if (item == null || item.getCafe() == null || item.getCafe().getId() == null) {
+                return "Todos los items deben indicar un café";
+            }
+            if (item.getCantidad() == null || item.getCantidad() <= 0) {
+                return "La cantidad debe ser mayor que cero";
+            }
+            if (!cafes.containsKey(item.getCafe().getId())) {
+                missing.add(item.getCafe().getId());
+            }
+        }
+        if (!missing.isEmpty()) {
+            return "Cafés no encontrados: " + missing;
+        }
+        return null;
+    }
+
+    /**
+     * Inserta un grupo de órdenes y sus items con dos sentencias por lotes,
+     * asignando a cada orden el ID generado por la base de datos.
+     * 
+     * @param orders Todas las órdenes del lote
+     * @param chunk Posiciones de las órdenes a insertar
+     */
+    private void insertChunk(List<Order> orders, List<Integer> chunk) {
+        SqlParameterSource[] orderParams = new SqlParameterSource[chunk.size()];
+        for (int j = 0; j < chunk.size(); j++) {
+            Order order = orders.get(chunk.get(j));
+            orderParams[j] = new MapSqlParameterSource()
+                    .addValue("customerId", order.getCustomer().getId())
+                    .addValue("total", toDecimal(order.getTotal()))
+                    .addValue("creationDate", Timestamp.valueOf(order.getCreationDate()));
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(INSERT_ORDER, orderParams, keyHolder, new String[] {"id"});
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != chunk.size()) {
+            throw new IllegalStateException("Error al guardar las órdenes: claves generadas incompletas");
+        }
+        List<SqlParameterSource> itemParams = new ArrayList<>();
+        for (int j = 0; j < chunk.size(); j++) {
+            Order order = orders.get(chunk.get(j));
+            order.setId(((Number) keys.get(j).values().iterator().next()).intValue());
+            for (OrderItem item : order.getItems()) {
+                itemParams.add(new MapSqlParameterSource()
+                        .addValue("orderId", order.getId())
+                        .addValue("cafeId", item.getCafe().getId())
+                        .addValue("cantidad", item.getCantidad())
+                        .addValue("precio", toDecimal(item.getPrecio())));
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_ITEM, itemParams.toArray(new SqlParameterSource[0]));
+    }
+
+    private static BigDecimal toDecimal(Money money) {
+        return money == null ? null : money.toBigDecimal();
+    }
+}
@@ -0,0 +1,227 @@
+package proyecto.cafe.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Servicio para la exportación de órdenes en formato NDJSON o CSV.
+ * Recorre las órdenes con un cursor de solo avance y un tamaño de lote fijo,
+ * escribiendo cada fila en la salida a medida que se lee, de modo que el
+ * consumo de memoria no depende del número de órdenes exportadas.
+ * Con MySQL, Connector/J solo respeta el tamaño de lote con {@code useCursorFetch=true}, que
+ * convertiría todas las sentencias de la aplicación en sentencias preparadas en el servidor;
+ * en su lugar, el JdbcTemplate propio de la exportación pide las filas una a una
+ * ({@code fetchSize = Integer.MIN_VALUE}), sin afectar al resto de conexiones.
+ * 
+ * @author Maria
+ * @version 1.1
+ */
+@Service
+public class OrderExportService {
+
+    private static final String EXPORT_QUERY =
+            "SELECT o.id, o.creation_date, o.total, c.id AS customer_id, c.name, c.email, " +
+            "i.cafe_id, f.nombre, i.cantidad, i.precio " +
+            "FROM orders o " +
+            "JOIN customers c ON c.id = o.customer_id " +
+            "LEFT JOIN order_items i ON i.order_id = o.id " +
+            "LEFT JOIN cafes f ON f.id = i.cafe_id " +
+            "WHERE o.creation_date >= ? AND o.creation_date < ? " +
+            "ORDER BY o.creation_date, o.id, i.id";
+
+    private static final String CSV_HEADER =
+            "order_id,creation_date,customer_id,customer_name,customer_email,cafe_id,cafe_nombre,cantidad,precio,order_total";
+
+    private static final LocalDateTime MIN_DATE = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_DATE = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructor que configura un JdbcTemplate propio con tamaño de lote fijo, o en
+     * streaming fila a fila si la base de datos es MySQL.
+     * @param dataSource Origen de datos de la aplicación
+     * @param objectMapper Mapper JSON de la aplicación
+     * @param fetchSize Número de filas que se leen por cada viaje a la base de datos (salvo con MySQL)
+     */
+    public OrderExportService(DataSource dataSource, ObjectMapper objectMapper,
+                              @Value("${cafe.orders.export.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(isMySql(dataSource) ? Integer.MIN_VALUE : fetchSize);
+        this.objectMapper = objectMapper;
+    }
+
+    private static boolean isMySql(DataSource dataSource) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return "MySQL".equals(JdbcUtils.commonDatabaseName(product));
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("No se pudo identificar la base de datos de la exportación", e);
+        }
+    }
+
+    /**
+     * Exporta las órdenes como NDJSON: un objeto JSON por orden y línea, con sus items anidados.
+     * 
+     * @param from Fecha de creación mínima (inclusive), o null sin límite
+     * @param to Fecha de creación máxima (exclusive), o null sin límite
+     * @param out Flujo de salida
+     * @throws IOException si hay un error al escribir
+     */
+    public void exportNdjson(LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        json.setRootValueSeparator(null);
+        NdjsonWriter writer = new NdjsonWriter(json);
+        query(from, to, writer);
+        writer.finish();
+        json.flush();
+    }
+
+    /**
+     * Exporta las órdenes como CSV, con una fila por item.
+     * 
+     * @param from Fecha de creación mínima (inclusive), o null sin límite
+     * @param to Fecha de creación máxima (exclusive), o null sin límite
+     * @param out Flujo de salida
+     * @throws IOException si hay un error al escribir
+     */
+    public void exportCsv(LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        query(from, to, rs -> {
+            try {
+                writer.write(rs.getInt("id") + ",");
+                writer.write(rs.getTimestamp("creation_date").toLocalDateTime() + ",");
+                writer.write(rs.getInt("customer_id") + ",");
+                writer.write(csv(rs.getString("name")) + ",");
+                writer.write(csv(rs.getString("email")) + ",");
+                writer.write(nullable(rs.getObject("cafe_id")) + ",");
+                writer.write(csv(rs.getString("nombre")) + ",");
+                writer.write(nullable(rs.getObject("cantidad")) + ",");
+                writer.write(nullable(rs.getObject("precio")) + ",");
+                writer.write(nullable(rs.getObject("total")));
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    private void query(LocalDateTime from, LocalDateTime to, RowCallbackHandler handler) throws IOException {
+        try {
+            jdbcTemplate.query(EXPORT_QUERY, handler,
+                    Timestamp.valueOf(from != null ? from : MIN_DATE),
+                    Timestamp.valueOf(to != null ? to : MAX_DATE));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static String nullable(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    /**
+     * Agrupa las filas consecutivas de una misma orden y escribe cada orden
+     * completa como una línea JSON en cuanto se detecta el cambio de orden.
+     */
+    private static class NdjsonWriter implements RowCallbackHandler {
+        private final JsonGenerator json;
+        private Integer currentId;
+        private final List<Object[]> items = new ArrayList<>();
+        private Object[] header;
+
+        NdjsonWriter(JsonGenerator json) {
+            this.json = json;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            int id = rs.getInt("id");
+            if (currentId == null || currentId != id) {
+                finish();
+                currentId = id;
+                header = new Object[] {
+                        id,
+                        rs.getTimestamp("creation_date").toLocalDateTime().toString(),
+                        rs.getObject("total"),
+                        rs.getInt("customer_id"),
+                        rs.getString("name"),
+                        rs.getString("email")
+                };
+            }
+            Object cafeId = rs.getObject("cafe_id");
+            if (cafeId != null) {
+                items.add(new Object[] {cafeId, rs.getString("nombre"), rs.getObject("cantidad"), rs.getObject("precio")});
+            }
+        }
+
+        void finish() {
+            if (currentId == null) {
+                return;
+            }
+            try {
+                json.writeStartObject();
+                json.writeObjectField("id", header[0]);
+                json.writeObjectField("creationDate", header[1]);
+                json.writeObjectField("total", header[2]);
+                json.writeObjectFieldStart("customer");
+                json.writeObjectField("id", header[3]);
+                json.writeObjectField("name", header[4]);
+                json.writeObjectField("email", header[5]);
+                json.writeEndObject();
+                json.writeArrayFieldStart("items");
+                for (Object[] item : items) {
+                    json.writeStartObject();
+                    json.writeObjectField("cafeId", item[0]);
+                    json.writeObjectField("nombre", item[1]);
+                    json.writeObjectField("cantidad", item[2]);
+                    json.writeObjectField("precio", item[3]);
+                    json.writeEndObject();
+                }
+                json.writeEndArray();
+                json.writeEndObject();
+                json.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            currentId = null;
+            items.clear();
+        }
+    }
+}
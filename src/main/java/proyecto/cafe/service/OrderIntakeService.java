@@ -0,0 +1,409 @@
+package proyecto.cafe.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import proyecto.cafe.dto.IntakeTicket;
+import proyecto.cafe.dto.OrderBatchResult;
+import proyecto.cafe.entity.Cafe;
+import proyecto.cafe.entity.Order;
+import proyecto.cafe.entity.OrderItem;
+import proyecto.cafe.intake.OrderIntakeJournal;
+import proyecto.cafe.money.Money;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Servicio de recepción asíncrona de órdenes.
+ * Cuando está activado ({@code cafe.orders.intake.async=true}), las órdenes se validan
+ * contra los datos en memoria (caché del catálogo e índice de clientes), se anotan en un
+ * diario local y se encolan en un buffer circular acotado; el cliente recibe un ticket
+ * sin esperar a la base de datos. Un hilo en segundo plano vacía la cola y guarda las
+ * órdenes por lotes, cada lote en una sola transacción.
+ * 
+ * Cada orden se guarda una sola vez: el resultado de cada ticket se registra en la tabla
+ * {@code order_intake_tickets} en la misma transacción que su lote, y al arrancar se omiten
+ * los tickets del diario que ya figuran en ella, aunque la aplicación se detuviera entre
+ * el commit del lote y su anotación en el diario.
+ * 
+ * @author Maria
+ * @version 1.2
+ */
+@Service
+public class OrderIntakeService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderIntakeService.class);
+
+    private static final String INSERT_TICKET =
+            "INSERT INTO order_intake_tickets (ticket_id, order_id, total, error) VALUES (?, ?, ?, ?)";
+
+    private static final String DELETE_TICKET = "DELETE FROM order_intake_tickets WHERE ticket_id = ?";
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    @Autowired
+    private OrderBatchService orderBatchService;
+
+    @Autowired
+    private CafeService cafeService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${cafe.orders.intake.async:false}")
+    private boolean enabled;
+
+    @Value("${cafe.orders.intake.capacity:10000}")
+    private int capacity;
+
+    @Value("${cafe.orders.intake.flush-size:500}")
+    private int flushSize;
+
+    @Value("${cafe.orders.intake.flush-interval-ms:50}")
+    private long flushIntervalMs;
+
+    @Value("${cafe.orders.intake.max-tickets:100000}")
+    private int maxTickets;
+
+    @Value("${cafe.orders.intake.journal:data/order-intake.journal}")
+    private Path journalPath;
+
+    @Value("${cafe.orders.intake.journal-sync:true}")
+    private boolean journalSync;
+
+    private final ReentrantLock submitLock = new ReentrantLock();
+    private BlockingQueue<Pending> queue;
+    private OrderIntakeJournal journal;
+    private Thread flusher;
+    private volatile boolean running;
+    private final List<String> recordedTickets = new ArrayList<>();
+
+    private final Map<String, IntakeTicket> tickets = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, IntakeTicket> eldest) {
+            return size() > maxTickets;
+        }
+    };
+
+    /**
+     * Indica si la recepción asíncrona está activada.
+     * @return true si las órdenes se encolan en lugar de guardarse directamente
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Abre el diario, vuelve a encolar las órdenes que quedaron pendientes
+     * (salvo las que ya se guardaron) y arranca el hilo que guarda las órdenes por lotes.
+     * 
+     * @throws IOException si no se puede abrir o leer el diario
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        journal = new OrderIntakeJournal(journalPath, journalSync);
+        Map<String, Order> pending = journal.replay();
+        Map<String, IntakeTicket> saved = savedTickets();
+        pending.keySet().removeIf(ticketId -> {
+            IntakeTicket ticket = saved.get(ticketId);
+            if (ticket != null) {
+                putTicket(ticket);
+                recordedTickets.add(ticketId);
+            }
+            return ticket != null;
+        });
+        queue = new ArrayBlockingQueue<>(Math.max(capacity, pending.size()));
+        for (Map.Entry<String, Order> entry : pending.entrySet()) {
+            queue.add(new Pending(entry.getKey(), entry.getValue()));
+            putTicket(IntakeTicket.pending(entry.getKey()));
+        }
+        if (!pending.isEmpty()) {
+            log.info("Recuperadas {} órdenes pendientes del diario {}", pending.size(), journalPath);
+        }
+        Gauge.builder("cafe.orders.intake.queue", queue, BlockingQueue::size)
+                .description("Órdenes recibidas pendientes de guardar")
+                .register(meterRegistry);
+
+        running = true;
+        flusher = new Thread(this::flushLoop, "order-intake-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Detiene el hilo de guardado. Las órdenes que queden en la cola siguen en el
+     * diario y se guardarán en el siguiente arranque.
+     * 
+     * @throws IOException si no se puede cerrar el diario
+     */
+    @PreDestroy
+    public void stop() throws IOException {
+        if (flusher == null) {
+            return;
+        }
+        running = false;
+        flusher.interrupt();
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.close();
+    }
+
+    /**
+     * Valida y encola una orden para guardarla en segundo plano.
+     * La validación usa la caché del catálogo y el índice de clientes, y se repite
+     * contra la base de datos al guardar el lote.
+     * 
+     * @param order Orden recibida
+     * @return Ticket con estado PENDING
+     * @throws IllegalArgumentException si el cliente o algún café no existe o la orden no es válida
+     * @throws IllegalStateException si la cola está llena o la recepción asíncrona no está activa
+     */
+    public IntakeTicket submit(Order order) {
+        if (queue == null || !running) {
+            throw new IllegalStateException("La recepción asíncrona de órdenes no está disponible");
+        }
+        validate(order);
+        order.setId(null);
+        order.setCreationDate(LocalDateTime.now());
+
+        IntakeTicket ticket = IntakeTicket.pending(UUID.randomUUID().toString());
+        submitLock.lock();
+        try {
+            if (queue.remainingCapacity() == 0) {
+                meterRegistry.counter("cafe.orders", "source", "intake", "result", "overflow").increment();
+                throw new IllegalStateException("La cola de órdenes está llena, inténtelo más tarde");
+            }
+            try {
+                journal.appendAccepted(ticket.getTicketId(), order);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error al anotar la orden en el diario", e);
+            }
+            putTicket(ticket);
+            queue.add(new Pending(ticket.getTicketId(), order));
+        } finally {
+            submitLock.unlock();
+        }
+        return ticket;
+    }
+
+    /**
+     * Obtiene el estado de una orden recibida en modo asíncrono.
+     * @param ticketId ID del ticket
+     * @return Ticket, o vacío si no existe o ya se descartó
+     */
+    public Optional<IntakeTicket> getTicket(String ticketId) {
+        synchronized (tickets) {
+            return Optional.ofNullable(tickets.get(ticketId));
+        }
+    }
+
+    private void putTicket(IntakeTicket ticket) {
+        synchronized (tickets) {
+            tickets.put(ticket.getTicketId(), ticket);
+        }
+    }
+
+    /**
+     * Comprueba la orden con los datos en memoria, sin abrir una transacción.
+     */
+    private void validate(Order order) {
+        if (order.getCustomer() == null || !customerService.customerExists(order.getCustomer().getId())) {
+            throw new IllegalArgumentException("Cliente no encontrado");
+        }
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (OrderItem item : order.getItems()) {
+            if (item == null || item.getCafe() == null || item.getCafe().getId() == null) {
+                throw new IllegalArgumentException("Todos los items deben indicar un café");
+            }
+            if (item.getCantidad() == null || item.getCantidad() <= 0) {
+                throw new IllegalArgumentException("La cantidad debe ser mayor que cero");
+            }
+            ids.add(item.getCafe().getId());
+        }
+        Map<Integer, Cafe> cafes = cafeService.getCafesByIds(ids);
+        if (cafes.size() != ids.size()) {
+            List<Integer> missing = new ArrayList<>(ids);
+            missing.removeAll(cafes.keySet());
+            throw new IllegalArgumentException("Cafés no encontrados: " + missing);
+        }
+    }
+
+    /**
+     * Bucle del hilo de guardado: espera a la primera orden, reúne hasta
+     * {@code flush-size} y las guarda en una transacción. Si el guardado falla,
+     * reintenta el mismo lote tras una pausa; una vez confirmado, el lote no se repite.
+     */
+    private void flushLoop() {
+        List<Pending> batch = new ArrayList<>(flushSize);
+        long backoffMs = 100;
+        while (running || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    Pending first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, flushSize - 1);
+                }
+                List<IntakeTicket> processed = save(batch);
+                batch.clear();
+                backoffMs = 100;
+                complete(processed);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    return;
+                }
+            } catch (RuntimeException | IOException e) {
+                log.error("Error al guardar {} órdenes recibidas; se reintentará", batch.size(), e);
+                if (!running) {
+                    return;
+                }
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, 5000);
+            }
+        }
+    }
+
+    /**
+     * Guarda el lote y el resultado de sus tickets en una sola transacción.
+     */
+    private List<IntakeTicket> save(List<Pending> batch) {
+        List<Order> orders = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            orders.add(pending.order);
+        }
+        return transactionTemplate.execute(status -> {
+            List<OrderBatchResult> results = orderBatchService.importOrders(orders, "intake", true);
+            List<IntakeTicket> processed = new ArrayList<>(batch.size());
+            List<Object[]> rows = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                String ticketId = batch.get(i).ticketId;
+                OrderBatchResult result = results.get(i);
+                if (result.getStatus() == OrderBatchResult.Status.CREATED) {
+                    processed.add(IntakeTicket.created(ticketId, result.getOrderId(), result.getTotal()));
+                    rows.add(new Object[] {ticketId, result.getOrderId(), result.getTotal().toBigDecimal(), null});
+                } else {
+                    processed.add(IntakeTicket.rejected(ticketId, result.getError()));
+                    rows.add(new Object[] {ticketId, null, null, truncateError(result.getError())});
+                }
+            }
+            jdbcTemplate.batchUpdate(INSERT_TICKET, rows);
+            return processed;
+        });
+    }
+
+    /**
+     * Publica el resultado de los tickets guardados, los anota en el diario y lo vacía si no queda nada pendiente.
+     */
+    private void complete(List<IntakeTicket> processed) throws IOException {
+        List<String> done = new ArrayList<>(processed.size());
+        for (IntakeTicket ticket : processed) {
+            putTicket(ticket);
+            done.add(ticket.getTicketId());
+        }
+        recordedTickets.addAll(done);
+        journal.appendDone(done);
+
+        // Con la cola vacía, todo lo anotado en el diario ya está procesado
+        boolean truncated = false;
+        submitLock.lock();
+        try {
+            if (queue.isEmpty()) {
+                journal.truncate();
+                truncated = true;
+            }
+        } finally {
+            submitLock.unlock();
+        }
+        // Los tickets registrados ya no figuran en el diario; si el borrado no llega a hacerse, sus filas no molestan
+        if (truncated) {
+            List<Object[]> rows = new ArrayList<>(recordedTickets.size());
+            for (String ticketId : recordedTickets) {
+                rows.add(new Object[] {ticketId});
+            }
+            recordedTickets.clear();
+            jdbcTemplate.batchUpdate(DELETE_TICKET, rows);
+        }
+    }
+
+    /**
+     * Tickets ya guardados en la base de datos, con su resultado.
+     */
+    private Map<String, IntakeTicket> savedTickets() {
+        Map<String, IntakeTicket> saved = new HashMap<>();
+        jdbcTemplate.query("SELECT ticket_id, order_id, total, error FROM order_intake_tickets", rs -> {
+            String ticketId = rs.getString("ticket_id");
+            int orderId = rs.getInt("order_id");
+            if (rs.wasNull()) {
+                saved.put(ticketId, IntakeTicket.rejected(ticketId, rs.getString("error")));
+            } else {
+                BigDecimal total = rs.getBigDecimal("total");
+                saved.put(ticketId, IntakeTicket.created(ticketId, orderId, total == null ? Money.ZERO : Money.of(total)));
+            }
+        });
+        return saved;
+    }
+
+    private static String truncateError(String error) {
+        return error == null || error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    /**
+     * Orden encolada junto con su ticket.
+     */
+    private static final class Pending {
+        private final String ticketId;
+        private final Order order;
+
+        Pending(String ticketId, Order order) {
+            this.ticketId = ticketId;
+            this.order = order;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package proyecto.cafe.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import proyecto.cafe.dto.OrderListItem;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Servicio del listado paginado de órdenes ({@code GET /api/orders}).
+ * Lee la página con una sola consulta de proyección sobre las columnas que muestra la lista
+ * y la escribe con un {@link JsonGenerator}, sin cargar entidades en el contexto de persistencia
+ * ni serializar por reflexión el cliente completo, el café de cada item o el envoltorio de {@link Page}.
+ * El tamaño de página se limita a {@link OrderService#MAX_PAGE_SIZE}.
+ *
+ * @author Maria
+ * @version 1.1
+ */
+@Service
+public class OrderListingService {
+
+    private static final String PAGE_QUERY =
+            "SELECT o.id, o.creation_date, o.total, o.customer_id, c.name, i.cafe_id, i.cantidad, i.precio " +
+            "FROM (SELECT id FROM orders ORDER BY id LIMIT ? OFFSET ?) p " +
+            "JOIN orders o ON o.id = p.id " +
+            "LEFT JOIN customers c ON c.id = o.customer_id " +
+            "LEFT JOIN order_items i ON i.order_id = o.id " +
+            "ORDER BY o.id, i.id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private volatile ObjectWriter dateWriter;
+
+    /**
+     * Obtiene una página de órdenes, ordenadas por ID.
+     *
+     * @param page Número de página (comienza en 0)
+     * @param size Tamaño de la página; los mayores que {@link OrderService#MAX_PAGE_SIZE} se reducen a ese máximo
+     * @return Página de órdenes con el total de elementos
+     * @throws IllegalArgumentException si la página o el tamaño no son válidos
+     */
+    public Page<OrderListItem> getPage(int page, int size) {
+        PageRequest pageable = PageRequest.of(page, Math.min(size, OrderService.MAX_PAGE_SIZE));
+        List<OrderListItem> orders = new ArrayList<>();
+        jdbcTemplate.query(PAGE_QUERY, rs -> {
+            int id = rs.getInt("id");
+            OrderListItem order = orders.isEmpty() ? null : orders.get(orders.size() - 1);
+            if (order == null || order.getId() != id) {
+                order = new OrderListItem(id, rs.getTimestamp("creation_date").toLocalDateTime(),
+                        rs.getBigDecimal("total"), rs.getInt("customer_id"), rs.getString("name"));
+                orders.add(order);
+            }
+            int cafeId = rs.getInt("cafe_id");
+            if (!rs.wasNull()) {
+                order.getItems().add(new OrderListItem.Item(cafeId, rs.getInt("cantidad"), rs.getBigDecimal("precio")));
+            }
+        }, pageable.getPageSize(), pageable.getOffset());
+        Long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Long.class);
+        return new PageImpl<>(orders, pageable, total != null ? total : 0);
+    }
+
+    /**
+     * Escribe una página como JSON, con los mismos campos de paginación que {@link Page}
+     * ({@code content}, {@code number}, {@code size}, {@code totalElements}, {@code totalPages}).
+     * Las fechas se escriben con la configuración del {@link ObjectMapper}, igual que en el resto de la API.
+     *
+     * @param page Página a escribir
+     * @param out Flujo de salida
+     * @throws IOException si hay un error al escribir
+     */
+    public void write(Page<OrderListItem> page, OutputStream out) throws IOException {
+        // Cerrar el generador devuelve sus búferes para reutilizarlos; el flujo lo cierra quien lo abrió
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("content");
+            for (OrderListItem order : page.getContent()) {
+                json.writeStartObject();
+                json.writeNumberField("id", order.getId());
+                json.writeFieldName("creationDate");
+                dateWriter().writeValue(json, order.getCreationDate());
+                json.writeNumberField("total", order.getTotal());
+                json.writeNumberField("customerId", order.getCustomerId());
+                json.writeStringField("customerName", order.getCustomerName());
+                json.writeArrayFieldStart("items");
+                for (OrderListItem.Item item : order.getItems()) {
+                    json.writeStartObject();
+                    json.writeNumberField("cafeId", item.getCafeId());
+                    json.writeNumberField("cantidad", item.getCantidad());
+                    json.writeNumberField("precio", item.getPrecio());
+                    json.writeEndObject();
+                }
+                json.writeEndArray();
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeNumberField("number", page.getNumber());
+            json.writeNumberField("size", page.getSize());
+            json.writeNumberField("totalElements", page.getTotalElements());
+            json.writeNumberField("totalPages", page.getTotalPages());
+            json.writeEndObject();
+        }
+    }
+
+    /**
+     * Escritor de fechas del {@link ObjectMapper}, sin vaciar el flujo tras cada valor; se resuelve una vez.
+     */
+    private ObjectWriter dateWriter() {
+        ObjectWriter writer = dateWriter;
+        if (writer == null) {
+            writer = objectMapper.writerFor(LocalDateTime.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            dateWriter = writer;
+        }
+        return writer;
+    }
+}
@@ -1,32 +1,54 @@
 package proyecto.cafe.service;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import proyecto.cafe.dto.CursorPage;
+import proyecto.cafe.dto.OrderCursor;
+import proyecto.cafe.dto.OrderSummary;
+import proyecto.cafe.embedded.OrderJournal;
 import proyecto.cafe.entity.Cafe;
 import proyecto.cafe.entity.Customer;
 import proyecto.cafe.entity.Order;
 import proyecto.cafe.entity.OrderItem;
-import proyecto.cafe.repository.CafeRepository;
 import proyecto.cafe.repository.CustomerRepository;
 import proyecto.cafe.repository.OrderRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Servicio para la gestión de órdenes en el sistema.
  * Proporciona métodos para realizar operaciones CRUD y consultas
  * sobre la entidad Order, incluyendo la validación de clientes y cafés.
+ * Con el perfil {@code embedded}, las órdenes creadas y eliminadas se anotan además en el
+ * {@link OrderJournal} antes de confirmar la transacción.
+ * Los listados paginados limitan el tamaño de página a {@link #MAX_PAGE_SIZE}.
+ * Las órdenes creadas y las rechazadas por validación se cuentan en la métrica {@code cafe.orders}
+ * con {@code source=api}.
  * 
  * @author Maria
- * @version 1.5
+ * @version 1.11
  */
 @Service
+@Timed(value = "cafe.service", histogram = true)
 public class OrderService {
+
+    /** Tamaño máximo de página de los listados de órdenes; los tamaños mayores se reducen a este. */
+    public static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private OrderRepository orderRepository;
 
@@ -34,48 +56,124 @@ public class OrderService {
     private CustomerRepository customerRepository;
 
     @Autowired
-    private CafeRepository cafeRepository;
+    private CafeService cafeService;
+
+    @Autowired
+    private SalesSummaryService salesSummaryService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    /** Diario de órdenes del perfil embedded; null con el resto de perfiles. */
+    @Autowired(required = false)
+    private OrderJournal orderJournal;
 
     /**
-     * Obtiene todas las órdenes registradas en el sistema de forma paginada.
+     * Obtiene una página de órdenes mediante paginación por cursor (keyset).
+     * Las órdenes se devuelven ordenadas por fecha de creación e ID, y no se
+     * calcula el total de elementos.
      * 
-     * @param pageable Configuración de la paginación (número de página, tamaño, ordenamiento)
-     * @return Página de órdenes
+     * @param after Cursor devuelto por la página anterior, o null/vacío para la primera página
+     * @param size Tamaño de la página; los mayores que {@link #MAX_PAGE_SIZE} se reducen a ese máximo
+     * @return Página de órdenes con el cursor de la siguiente página
+     * @throws IllegalArgumentException si el cursor o el tamaño no son válidos
      */
     @Transactional(readOnly = true)
-    public Page<Order> getAllOrders(Pageable pageable) {
-        return orderRepository.findAll(pageable);
+    public CursorPage<Order> getOrdersAfter(String after, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("El tamaño de página debe ser mayor que cero");
+        }
+        size = Math.min(size, MAX_PAGE_SIZE);
+        // Se pide un elemento extra para saber si existe una página siguiente
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Integer> ids;
+        if (after == null || after.isBlank()) {
+            ids = orderRepository.findFirstIdsByKeyset(limit);
+        } else {
+            OrderCursor cursor = OrderCursor.decode(after);
+            ids = orderRepository.findIdsAfterKeyset(cursor.getCreationDate(), cursor.getId(), limit);
+        }
+
+        boolean hasNext = ids.size() > size;
+        List<Order> orders = loadOrders(hasNext ? ids.subList(0, size) : ids);
+
+        String nextCursor = null;
+        if (hasNext && !orders.isEmpty()) {
+            Order last = orders.get(orders.size() - 1);
+            nextCursor = new OrderCursor(last.getCreationDate(), last.getId()).encode();
+        }
+        return new CursorPage<>(orders, nextCursor, size);
+    }
+
+    /**
+     * Carga las órdenes indicadas con su cliente, items y cafés en una sola consulta,
+     * conservando el orden de la lista de IDs recibida.
+     * 
+     * @param ids IDs de las órdenes en el orden deseado
+     * @return Lista de órdenes en el mismo orden que los IDs
+     */
+    private List<Order> loadOrders(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Integer, Order> byId = new HashMap<>();
+        for (Order order : orderRepository.findAllWithItemsByIdIn(ids)) {
+            byId.put(order.getId(), order);
+        }
+        List<Order> orders = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Order order = byId.get(id);
+            if (order != null) {
+                orders.add(order);
+            }
+        }
+        return orders;
     }
 
     /**
-     * Busca una orden por su ID.
+     * Busca una orden por su ID, entre las recientes y, si no está, entre las archivadas.
      * 
      * @param id ID de la orden a buscar
      * @return Optional que puede contener la orden si existe
      */
     public Optional<Order> getOrderById(Integer id) {
-        return orderRepository.findById(id);
+        Optional<Order> order = orderRepository.findById(id);
+        return order.isPresent() ? order : orderArchiveService.findById(id);
     }
 
     /**
      * Crea una nueva orden en el sistema.
-     * Valida que el cliente y los cafés existan, y establece los precios actuales.
+     * Valida que el cliente y los cafés existan y que las cantidades sean positivas,
+     * establece los precios actuales y actualiza los agregados de ventas.
+     * Una orden que no pasa la validación se cuenta como rechazada.
      * 
      * @param order Orden a crear
      * @return Orden creada con su ID asignado
-     * @throws IllegalArgumentException si el cliente o algún café no existe
+     * @throws IllegalArgumentException si el cliente o algún café no existe, o alguna cantidad no es positiva
      * @throws IllegalStateException si hay un error al guardar la orden
      */
     @Transactional
     public Order crearOrder(Order order) {
-        // Validar que el cliente existe
-        Customer customer = customerRepository.findById(order.getCustomer().getId())
-            .orElseThrow(() -> new IllegalArgumentException("Cliente no encontrado"));
+        Customer customer;
+        Map<Integer, Cafe> cafes;
+        try {
+            // Validar que el cliente existe
+            customer = customerRepository.findById(order.getCustomer().getId())
+                .orElseThrow(() -> new IllegalArgumentException("Cliente no encontrado"));
+
+            // Validar que todos los cafés existen
+            cafes = resolverCafes(order.getItems());
+        } catch (IllegalArgumentException e) {
+            meterRegistry.counter("cafe.orders", "source", "api", "result", "rejected").increment();
+            throw e;
+        }
 
-        // Validar que todos los cafés existen y establecer el precio actual
+        // Establecer el precio actual
         for (OrderItem item : order.getItems()) {
-            Cafe cafe = cafeRepository.findById(item.getCafe().getId())
-                .orElseThrow(() -> new IllegalArgumentException("Café no encontrado: " + item.getCafe().getId()));
+            Cafe cafe = cafes.get(item.getCafe().getId());
             item.setCafe(cafe);
             item.setPrecio(cafe.getPrecio());
         }
@@ -90,37 +188,122 @@ public class OrderService {
         if (savedOrder.getId() == null) {
             throw new IllegalStateException("Error al guardar la orden");
         }
+        salesSummaryService.recordCreated(List.of(savedOrder));
+        if (orderJournal != null) {
+            orderJournal.recordCreated(List.of(savedOrder));
+        }
+        meterRegistry.counter("cafe.orders", "source", "api", "result", "created").increment();
 
         return savedOrder;
     }
 
+    /**
+     * Obtiene todos los cafés referenciados por los items, desde la caché del
+     * catálogo o, para los que falten, con una sola consulta.
+     * Si alguno no existe, informa de todos los IDs que faltan a la vez.
+     * 
+     * @param items Items de la orden
+     * @return Mapa de cafés indexado por su ID
+     * @throws IllegalArgumentException si algún item no indica café o una cantidad positiva, o algún café no existe
+     */
+    private Map<Integer, Cafe> resolverCafes(List<OrderItem> items) {
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (OrderItem item : items) {
+            if (item == null || item.getCafe() == null || item.getCafe().getId() == null) {
+                throw new IllegalArgumentException("Todos los items deben indicar un café");
+            }
+            if (item.getCantidad() == null || item.getCantidad() <= 0) {
+                throw new IllegalArgumentException("La cantidad debe ser mayor que cero");
+            }
+            ids.add(item.getCafe().getId());
+        }
+
+        Map<Integer, Cafe> cafes = cafeService.getCafesByIds(ids);
+
+        if (cafes.size() < ids.size()) {
+            List<Integer> faltantes = new ArrayList<>();
+            for (Integer id : ids) {
+                if (!cafes.containsKey(id)) {
+                    faltantes.add(id);
+                }
+            }
+            throw new IllegalArgumentException("Cafés no encontrados: " + faltantes);
+        }
+        return cafes;
+    }
+
     /**
      * Elimina una orden del sistema por su ID.
-     * Valida que la orden exista antes de eliminarla.
+     * Valida que la orden exista antes de eliminarla y descuenta sus ventas de los agregados.
      * 
      * @param id ID de la orden a eliminar
      * @throws IllegalArgumentException si la orden no existe
+     * @throws IllegalStateException si la orden está archivada
      */
     @Transactional
     public void deleteOrder(Integer id) {
-        if (!orderRepository.existsById(id)) {
+        Order order = orderRepository.findById(id).orElse(null);
+        if (order == null) {
+            if (orderArchiveService.findById(id).isPresent()) {
+                throw new IllegalStateException("La orden está archivada y no se puede eliminar");
+            }
             throw new IllegalArgumentException("Orden no encontrada");
         }
-        orderRepository.deleteById(id);
+        salesSummaryService.recordDeleted(List.of(order));
+        orderRepository.delete(order);
+        if (orderJournal != null) {
+            orderJournal.recordDeleted(id);
+        }
     }
 
     /**
-     * Obtiene todas las órdenes asociadas a un cliente específico.
-     * Valida que el cliente exista antes de buscar sus órdenes.
+     * Obtiene todas las órdenes asociadas a un cliente específico, incluidas las archivadas.
+     * Solo comprueba que el cliente exista cuando no se encuentran órdenes.
      * 
      * @param customer Cliente del cual se desean obtener las órdenes
      * @return Lista de órdenes del cliente
      * @throws IllegalArgumentException si el cliente no existe
      */
     public List<Order> getOrdersByCustomer(Customer customer) {
-        if (!customerRepository.existsById(customer.getId())) {
+        List<Order> orders = new ArrayList<>(orderArchiveService.findByCustomer(customer.getId()));
+        orders.addAll(orderRepository.findByCustomerId(customer.getId()));
+        if (orders.isEmpty() && !customerRepository.existsById(customer.getId())) {
             throw new IllegalArgumentException("Cliente no encontrado");
         }
-        return orderRepository.findByCustomer(customer);
+        return orders;
+    }
+
+    /**
+     * Obtiene de forma paginada el historial resumido de órdenes de un cliente
+     * (ID, fecha, total y número de items), de la más reciente a la más antigua.
+     * Las órdenes archivadas son siempre anteriores a las recientes, por lo que ocupan
+     * el final del historial: la página se completa con ellas cuando se agotan las recientes.
+     * Solo comprueba que el cliente exista cuando la página está vacía.
+     * 
+     * @param customerId ID del cliente
+     * @param pageable Configuración de la paginación (número de página y tamaño, como máximo {@link #MAX_PAGE_SIZE})
+     * @return Página de resúmenes de órdenes
+     * @throws IllegalArgumentException si el cliente no existe
+     */
+    @Transactional(readOnly = true)
+    public Page<OrderSummary> getOrderHistory(Integer customerId, Pageable pageable) {
+        if (pageable.getPageSize() > MAX_PAGE_SIZE) {
+            pageable = PageRequest.of(pageable.getPageNumber(), MAX_PAGE_SIZE, pageable.getSort());
+        }
+        Page<OrderSummary> recent = orderRepository.findSummariesByCustomerId(customerId, pageable);
+        long archived = orderArchiveService.countByCustomer(customerId);
+        if (recent.isEmpty() && archived == 0 && !customerRepository.existsById(customerId)) {
+            throw new IllegalArgumentException("Cliente no encontrado");
+        }
+        if (archived == 0) {
+            return recent;
+        }
+        List<OrderSummary> content = new ArrayList<>(recent.getContent());
+        int missing = pageable.getPageSize() - content.size();
+        if (missing > 0) {
+            long offset = Math.max(0, pageable.getOffset() - recent.getTotalElements());
+            content.addAll(orderArchiveService.findSummariesByCustomer(customerId, offset, missing));
+        }
+        return new PageImpl<>(content, pageable, recent.getTotalElements() + archived);
     }
 }
\ No newline at end of file
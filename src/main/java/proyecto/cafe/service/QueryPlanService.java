@@ -0,0 +1,214 @@
+package proyecto.cafe.service;
+
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ReflectionUtils;
+import proyecto.cafe.dto.QueryPlan;
+import proyecto.cafe.entity.Customer;
+import proyecto.cafe.metrics.StatementCapture;
+import proyecto.cafe.metrics.StatementCapture.CapturedStatement;
+import proyecto.cafe.repository.OrderRepository;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Servicio de diagnóstico que obtiene el plan de ejecución de todas las consultas
+ * de {@link OrderRepository} y señala las que recorren tablas completas.
+ * El SQL de cada consulta se captura sin ejecutarla (ver {@link StatementCapture})
+ * y se analiza con EXPLAIN usando valores de ejemplo para los parámetros.
+ * Los métodos se descubren por reflexión, de modo que una consulta nueva
+ * se analiza automáticamente.
+ * 
+ * Los planes solo son representativos con volúmenes de datos reales: con tablas
+ * casi vacías el optimizador puede preferir un recorrido completo aunque exista índice.
+ * 
+ * @author Maria
+ * @version 1.1
+ */
+@Service
+public class QueryPlanService {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryPlanService.class);
+
+    /**
+     * Listados sin filtro, en los que recorrer la tabla completa es inherente a la consulta.
+     */
+    private static final Set<String> FULL_SCAN_EXPECTED = Set.of("findAll", "findAllWithCustomer");
+
+    private static final Pattern H2_TABLE_SCAN = Pattern.compile("/\\* ([\\w.]+)\\.tableScan");
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${cafe.diagnostics.explain-on-startup:false}")
+    private boolean explainOnStartup;
+
+    /**
+     * Obtiene el plan de ejecución de cada consulta del repositorio de órdenes
+     * y, para las consultas paginadas con recuento propio, también el de su COUNT.
+     * 
+     * @return Planes de ejecución, ordenados por método
+     */
+    public List<QueryPlan> explainOrderQueries() {
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+
+        List<Method> methods = new ArrayList<>();
+        for (Method method : OrderRepository.class.getDeclaredMethods()) {
+            if (!method.isDefault() && !method.isSynthetic() && !Modifier.isStatic(method.getModifiers())) {
+                methods.add(method);
+            }
+        }
+        methods.sort(Comparator.comparing(Method::getName).thenComparing(Method::getParameterCount));
+
+        List<QueryPlan> plans = new ArrayList<>();
+        for (Method method : methods) {
+            String name = method.getName();
+            boolean expected = FULL_SCAN_EXPECTED.contains(name);
+            Object[] args;
+            try {
+                args = sampleArguments(method);
+            } catch (IllegalArgumentException e) {
+                plans.add(new QueryPlan(name, "query", null, null, null, expected, e.getMessage()));
+                continue;
+            }
+            plans.add(explain(name, "query", expected, database,
+                    () -> ReflectionUtils.invokeMethod(method, orderRepository, args)));
+
+            Query query = method.getAnnotation(Query.class);
+            if (query != null && !query.countQuery().isEmpty()) {
+                plans.add(explain(name, "count", expected, database,
+                        () -> countQuery(query.countQuery(), method, args).getSingleResult()));
+            }
+        }
+        return plans;
+    }
+
+    /**
+     * Analiza las consultas al arrancar si {@code cafe.diagnostics.explain-on-startup=true}
+     * y deja un aviso en el log por cada consulta señalada.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void explainOnStartup() {
+        if (!explainOnStartup) {
+            return;
+        }
+        for (QueryPlan plan : explainOrderQueries()) {
+            if (plan.isFlagged()) {
+                log.warn("Consulta OrderRepository.{} ({}) señalada: recorridos completos {} {}",
+                        plan.getMethod(), plan.getKind(), plan.getFullScans(),
+                        plan.getError() != null ? plan.getError() : plan.getSql());
+            }
+        }
+    }
+
+    private QueryPlan explain(String method, String kind, boolean expected, String database, Runnable action) {
+        CapturedStatement statement;
+        try {
+            statement = StatementCapture.capture(action);
+        } catch (RuntimeException e) {
+            return new QueryPlan(method, kind, null, null, null, expected, "Error al generar el SQL: " + e.getMessage());
+        }
+        if (statement == null) {
+            return new QueryPlan(method, kind, null, null, null, expected, "La consulta no ejecuta ninguna sentencia");
+        }
+        try {
+            List<Map<String, Object>> rows =
+                    jdbcTemplate.queryForList("EXPLAIN " + statement.getSql(), statement.getParameters().toArray());
+            return new QueryPlan(method, kind, statement.getSql(), rows, fullScans(rows, database), expected, null);
+        } catch (RuntimeException e) {
+            return new QueryPlan(method, kind, statement.getSql(), null, null, expected, "Error en EXPLAIN: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene las tablas recorridas completas según el formato de EXPLAIN de cada base de datos:
+     * tipo de acceso ALL en MySQL, o marca tableScan en el plan de H2.
+     */
+    private static List<String> fullScans(List<Map<String, Object>> rows, String database) {
+        List<String> tables = new ArrayList<>();
+        for (Map<String, Object> row : rows) {
+            if (database.equalsIgnoreCase("MySQL") || database.equalsIgnoreCase("MariaDB")) {
+                if ("ALL".equals(row.get("type"))) {
+                    tables.add(String.valueOf(row.get("table")));
+                }
+            } else if (database.equalsIgnoreCase("H2")) {
+                for (Object value : row.values()) {
+                    Matcher matcher = H2_TABLE_SCAN.matcher(String.valueOf(value));
+                    while (matcher.find()) {
+                        tables.add(matcher.group(1));
+                    }
+                }
+            }
+        }
+        return tables;
+    }
+
+    private jakarta.persistence.Query countQuery(String jpql, Method method, Object[] args) {
+        jakarta.persistence.Query query = entityManager.createQuery(jpql);
+        Parameter[] parameters = method.getParameters();
+        for (int i = 0; i < parameters.length; i++) {
+            Param param = parameters[i].getAnnotation(Param.class);
+            if (param != null) {
+                query.setParameter(param.value(), args[i]);
+            }
+        }
+        return query;
+    }
+
+    /**
+     * Genera valores de ejemplo para los parámetros de una consulta.
+     * @throws IllegalArgumentException si algún tipo de parámetro no está soportado
+     */
+    private static Object[] sampleArguments(Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        Object[] args = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            Class<?> type = types[i];
+            if (Pageable.class.isAssignableFrom(type)) {
+                args[i] = PageRequest.of(0, 20);
+            } else if (type == Integer.class || type == int.class) {
+                args[i] = 1;
+            } else if (type == LocalDateTime.class) {
+                args[i] = LocalDateTime.now();
+            } else if (Collection.class.isAssignableFrom(type)) {
+                args[i] = Arrays.asList(1, 2, 3);
+            } else if (type == Customer.class) {
+                args[i] = new Customer(1, null, null);
+            } else {
+                throw new IllegalArgumentException("Sin valor de ejemplo para parámetros de tipo " + type.getSimpleName());
+            }
+        }
+        return args;
+    }
+}
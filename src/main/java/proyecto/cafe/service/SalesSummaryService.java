@@ -0,0 +1,262 @@
+package proyecto.cafe.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import proyecto.cafe.dto.SalesReportRow;
+import proyecto.cafe.entity.Order;
+import proyecto.cafe.entity.OrderItem;
+import proyecto.cafe.money.Money;
+import proyecto.cafe.repository.SalesSummaryRepository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Servicio que mantiene y consulta los agregados de ventas.
+ * Los agregados por día, café y cliente se actualizan de forma incremental
+ * dentro de la misma transacción en la que se crean o eliminan las órdenes,
+ * y los informes se calculan leyendo únicamente de ellos.
+ * Cada clave se actualiza con una única sentencia atómica de inserción o suma
+ * ({@code INSERT ... ON DUPLICATE KEY UPDATE} en MySQL, {@code MERGE} en H2), en el mismo
+ * orden en todas las transacciones, para que dos órdenes simultáneas de una clave nueva
+ * no se bloqueen mutuamente.
+ * 
+ * @author Maria
+ * @version 1.2
+ */
+@Service
+public class SalesSummaryService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesSummaryService.class);
+
+    private static final String UPSERT_SUMMARY_MYSQL =
+            "INSERT INTO sales_summary (revenue, quantity, sales_date, cafe_id, customer_id) VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE revenue = revenue + VALUES(revenue), quantity = quantity + VALUES(quantity)";
+
+    private static final String UPSERT_SUMMARY_H2 =
+            "MERGE INTO sales_summary s USING (VALUES (CAST(? AS DECIMAL(15,2)), CAST(? AS BIGINT), " +
+            "CAST(? AS DATE), CAST(? AS INTEGER), CAST(? AS INTEGER))) AS d (revenue, quantity, sales_date, cafe_id, customer_id) " +
+            "ON s.sales_date = d.sales_date AND s.cafe_id = d.cafe_id AND s.customer_id = d.customer_id " +
+            "WHEN MATCHED THEN UPDATE SET revenue = s.revenue + d.revenue, quantity = s.quantity + d.quantity " +
+            "WHEN NOT MATCHED THEN INSERT (sales_date, cafe_id, customer_id, revenue, quantity) " +
+            "VALUES (d.sales_date, d.cafe_id, d.customer_id, d.revenue, d.quantity)";
+
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing((Key key) -> key.day)
+            .thenComparing(key -> key.cafeId).thenComparing(key -> key.customerId);
+
+    private static final String REBUILD_SUMMARY =
+            "INSERT INTO sales_summary (sales_date, cafe_id, customer_id, revenue, quantity) " +
+            "SELECT sales_date, cafe_id, customer_id, SUM(revenue), SUM(quantity) FROM (" +
+            "SELECT CAST(o.creation_date AS DATE) AS sales_date, i.cafe_id, o.customer_id, " +
+            "i.precio * i.cantidad AS revenue, i.cantidad AS quantity " +
+            "FROM orders o JOIN order_items i ON i.order_id = o.id " +
+            "UNION ALL " +
+            "SELECT CAST(o.creation_date AS DATE), i.cafe_id, o.customer_id, i.precio * i.cantidad, i.cantidad " +
+            "FROM orders_archive o JOIN order_items_archive i ON i.order_id = o.id" +
+            ") s GROUP BY sales_date, cafe_id, customer_id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SalesSummaryRepository salesSummaryRepository;
+
+    private volatile String upsertSql;
+
+    /**
+     * Suma las ventas de las órdenes indicadas a los agregados.
+     * 
+     * @param orders Órdenes creadas
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Collection<Order> orders) {
+        apply(orders, 1);
+    }
+
+    /**
+     * Resta las ventas de las órdenes indicadas de los agregados.
+     * 
+     * @param orders Órdenes eliminadas
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeleted(Collection<Order> orders) {
+        apply(orders, -1);
+    }
+
+    /**
+     * Obtiene un informe de ventas entre dos días, agrupado por la dimensión indicada.
+     * 
+     * @param from Día inicial (inclusive)
+     * @param to Día final (inclusive)
+     * @param groupBy Dimensión de agrupación: day, cafe o customer
+     * @return Filas del informe
+     * @throws IllegalArgumentException si el rango o la dimensión no son válidos
+     */
+    @Transactional(readOnly = true)
+    public List<SalesReportRow> getSalesReport(LocalDate from, LocalDate to, String groupBy) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("La fecha inicial no puede ser posterior a la final");
+        }
+        List<SalesReportRow> rows = new ArrayList<>();
+        switch (groupBy.toLowerCase()) {
+            case "day" -> salesSummaryRepository.sumByDay(from, to).forEach(r ->
+                    rows.add(SalesReportRow.byDay((LocalDate) r[0], toMoney(r[1]), toLong(r[2]))));
+            case "cafe" -> salesSummaryRepository.sumByCafe(from, to).forEach(r ->
+                    rows.add(SalesReportRow.byCafe((Integer) r[0], toMoney(r[1]), toLong(r[2]))));
+            case "customer" -> salesSummaryRepository.sumByCustomer(from, to).forEach(r ->
+                    rows.add(SalesReportRow.byCustomer((Integer) r[0], toMoney(r[1]), toLong(r[2]))));
+            default -> throw new IllegalArgumentException("Agrupación no soportada: " + groupBy);
+        }
+        return rows;
+    }
+
+    /**
+     * Recalcula todos los agregados a partir del historial de órdenes, incluidas las archivadas.
+     * Se utiliza para la carga inicial o para corregir desviaciones.
+     * 
+     * @return Número de filas de agregados generadas
+     */
+    @Transactional
+    public int rebuild() {
+        jdbcTemplate.update("DELETE FROM sales_summary");
+        return jdbcTemplate.update(REBUILD_SUMMARY);
+    }
+
+    /**
+     * Genera los agregados al arrancar si la tabla está vacía pero ya existen órdenes,
+     * por ejemplo en la primera ejecución tras introducir los agregados.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        Integer summaries = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sales_summary", Integer.class);
+        Integer orders = jdbcTemplate.queryForObject(
+                "SELECT (SELECT COUNT(*) FROM orders) + (SELECT COUNT(*) FROM orders_archive)", Integer.class);
+        if (summaries != null && summaries == 0 && orders != null && orders > 0) {
+            log.info("Generando agregados de ventas para {} órdenes existentes", orders);
+            rebuild();
+        }
+    }
+
+    /**
+     * Acumula en memoria los incrementos (en céntimos) por (día, café, cliente) y los aplica
+     * con una inserción o suma atómica por clave, ordenadas por clave (en lote en MySQL).
+     */
+    private void apply(Collection<Order> orders, int sign) {
+        Map<Key, long[]> deltas = new TreeMap<>(KEY_ORDER);
+        for (Order order : orders) {
+            LocalDate day = order.getCreationDate().toLocalDate();
+            Integer customerId = order.getCustomer().getId();
+            for (OrderItem item : order.getItems()) {
+                if (item.getPrecio() == null || item.getCantidad() == null) {
+                    continue;
+                }
+                long[] delta = deltas.computeIfAbsent(new Key(day, item.getCafe().getId(), customerId), k -> new long[2]);
+                delta[0] = Math.addExact(delta[0], sign * item.getPrecio().times(item.getCantidad()).getCents());
+                delta[1] += sign * item.getCantidad();
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> upserts = new ArrayList<>(deltas.size());
+        for (Map.Entry<Key, long[]> entry : deltas.entrySet()) {
+            Key key = entry.getKey();
+            long[] delta = entry.getValue();
+            upserts.add(new Object[] {BigDecimal.valueOf(delta[0], Money.SCALE), delta[1], Date.valueOf(key.day), key.cafeId, key.customerId});
+        }
+        String sql = upsertSql();
+        if (sql.equals(UPSERT_SUMMARY_MYSQL)) {
+            jdbcTemplate.batchUpdate(sql, upserts);
+            return;
+        }
+        for (Object[] upsert : upserts) {
+            try {
+                jdbcTemplate.update(sql, upsert);
+            } catch (DuplicateKeyException e) {
+                // MERGE de H2 no ve la fila que otra transacción acaba de insertar; al repetirlo ya la suma
+                jdbcTemplate.update(sql, upsert);
+            }
+        }
+    }
+
+    /**
+     * Sentencia de inserción o suma del dialecto de la base de datos, que se resuelve una vez.
+     */
+    private String upsertSql() {
+        String sql = upsertSql;
+        if (sql == null) {
+            String database = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            sql = "H2".equalsIgnoreCase(database) ? UPSERT_SUMMARY_H2 : UPSERT_SUMMARY_MYSQL;
+            upsertSql = sql;
+        }
+        return sql;
+    }
+
+    private static Money toMoney(Object value) {
+        if (value == null) {
+            return Money.ZERO;
+        }
+        if (value instanceof Money) {
+            return (Money) value;
+        }
+        if (value instanceof BigDecimal) {
+            return Money.of((BigDecimal) value);
+        }
+        return Money.of(value.toString());
+    }
+
+    private static Long toLong(Object value) {
+        return value == null ? 0L : ((Number) value).longValue();
+    }
+
+    /**
+     * Clave de agregación (día, café, cliente).
+     */
+    private static final class Key {
+        private final LocalDate day;
+        private final Integer cafeId;
+        private final Integer customerId;
+
+        Key(LocalDate day, Integer cafeId, Integer customerId) {
+            this.day = day;
+            this.cafeId = cafeId;
+            this.customerId = customerId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return day.equals(other.day) && cafeId.equals(other.cafeId) && customerId.equals(other.customerId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(day, cafeId, customerId);
+        }
+    }
+}
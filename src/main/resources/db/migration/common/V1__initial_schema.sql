@@ -0,0 +1,38 @@
+-- Esquema inicial: cafés, clientes, órdenes e items tal como los generaba Hibernate.
+-- Las bases de datos existentes se registran en esta versión sin ejecutarla (baseline).
+
+CREATE TABLE cafes (
+    id INTEGER NOT NULL AUTO_INCREMENT,
+    nombre VARCHAR(255),
+    descripcion VARCHAR(255),
+    precio FLOAT(53),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE customers (
+    id INTEGER NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_customers_email UNIQUE (email)
+);
+
+CREATE TABLE orders (
+    id INTEGER NOT NULL AUTO_INCREMENT,
+    customer_id INTEGER NOT NULL,
+    total FLOAT(53),
+    creation_date DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_orders_customer FOREIGN KEY (customer_id) REFERENCES customers (id)
+);
+
+CREATE TABLE order_items (
+    id INTEGER NOT NULL AUTO_INCREMENT,
+    order_id INTEGER,
+    cafe_id INTEGER NOT NULL,
+    cantidad INTEGER,
+    precio FLOAT(53),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders (id),
+    CONSTRAINT fk_order_items_cafe FOREIGN KEY (cafe_id) REFERENCES cafes (id)
+);
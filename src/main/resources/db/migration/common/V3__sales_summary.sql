@@ -0,0 +1,12 @@
+-- Agregados de ventas por día, café y cliente.
+
+CREATE TABLE sales_summary (
+    id INTEGER NOT NULL AUTO_INCREMENT,
+    sales_date DATE NOT NULL,
+    cafe_id INTEGER NOT NULL,
+    customer_id INTEGER NOT NULL,
+    revenue DECIMAL(15,2) NOT NULL,
+    quantity BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_sales_summary_day_cafe_customer UNIQUE (sales_date, cafe_id, customer_id)
+);
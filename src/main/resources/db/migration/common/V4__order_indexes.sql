@@ -0,0 +1,6 @@
+-- Índices de las consultas de órdenes (listado por cursor, historial por cliente y carga de items).
+
+CREATE INDEX idx_orders_creation_date_id ON orders (creation_date, id);
+CREATE INDEX idx_orders_customer_creation_date_id ON orders (customer_id, creation_date, id);
+CREATE INDEX idx_order_items_order_cafe ON order_items (order_id, cafe_id);
+CREATE INDEX idx_order_items_cafe ON order_items (cafe_id);
@@ -0,0 +1,25 @@
+-- Archivo de órdenes: las órdenes anteriores al horizonte configurado se trasladan
+-- a estas tablas, con el mismo ID, para que las consultas habituales recorran solo las recientes.
+
+CREATE TABLE orders_archive (
+    id INTEGER NOT NULL,
+    customer_id INTEGER NOT NULL,
+    total DECIMAL(12,2),
+    creation_date DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_orders_archive_customer FOREIGN KEY (customer_id) REFERENCES customers (id)
+);
+
+CREATE TABLE order_items_archive (
+    id INTEGER NOT NULL,
+    order_id INTEGER NOT NULL,
+    cafe_id INTEGER NOT NULL,
+    cantidad INTEGER,
+    precio DECIMAL(10,2),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_order_items_archive_order FOREIGN KEY (order_id) REFERENCES orders_archive (id),
+    CONSTRAINT fk_order_items_archive_cafe FOREIGN KEY (cafe_id) REFERENCES cafes (id)
+);
+
+CREATE INDEX idx_orders_archive_customer_creation_date_id ON orders_archive (customer_id, creation_date, id);
+CREATE INDEX idx_order_items_archive_order ON order_items_archive (order_id);
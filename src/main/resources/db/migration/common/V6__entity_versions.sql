@@ -0,0 +1,5 @@
+-- Versión de cafés y clientes para el bloqueo optimista (@Version): cada actualización
+-- la incrementa y solo se aplica si coincide con la que leyó el cliente.
+
+ALTER TABLE cafes ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE customers ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,11 @@
+-- Tickets de la recepción asíncrona ya procesados. Se escriben en la misma transacción que
+-- el lote de órdenes, de modo que al repetir el diario tras una caída se omiten los ya guardados.
+-- Las filas se eliminan al vaciar el diario.
+
+CREATE TABLE order_intake_tickets (
+    ticket_id VARCHAR(36) NOT NULL,
+    order_id INTEGER,
+    total DECIMAL(12,2),
+    error VARCHAR(500),
+    PRIMARY KEY (ticket_id)
+);
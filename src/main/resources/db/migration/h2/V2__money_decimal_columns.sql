@@ -0,0 +1,5 @@
+-- Importes en punto fijo: las columnas de precios y totales pasan de DOUBLE a DECIMAL con dos decimales.
+
+ALTER TABLE cafes ALTER COLUMN precio SET DATA TYPE DECIMAL(10,2);
+ALTER TABLE order_items ALTER COLUMN precio SET DATA TYPE DECIMAL(10,2);
+ALTER TABLE orders ALTER COLUMN total SET DATA TYPE DECIMAL(12,2);
@@ -0,0 +1,5 @@
+-- Importes en punto fijo: las columnas de precios y totales pasan de DOUBLE a DECIMAL con dos decimales.
+
+ALTER TABLE cafes MODIFY COLUMN precio DECIMAL(10,2);
+ALTER TABLE order_items MODIFY COLUMN precio DECIMAL(10,2);
+ALTER TABLE orders MODIFY COLUMN total DECIMAL(12,2);
@@ -0,0 +1,14 @@
+-- Claves de idempotencia de POST /api/orders: la respuesta guardada de cada clave se devuelve
+-- al repetir la petición. Se escribe en la misma transacción que la orden.
+
+CREATE TABLE idempotency_keys (
+    idem_key VARCHAR(100) NOT NULL,
+    request_hash CHAR(64) NOT NULL,
+    status_code INTEGER NOT NULL,
+    location VARCHAR(255),
+    body MEDIUMTEXT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (idem_key)
+);
+
+CREATE INDEX idx_idempotency_keys_created_at ON idempotency_keys (created_at);
@@ -0,0 +1,82 @@
+package proyecto.cafe.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import proyecto.cafe.entity.Cafe;
+import proyecto.cafe.money.Money;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CafeCacheTests {
+
+    private final CafeCache cache = new CafeCache(10);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void staleValueLoadedBeforeCommitIsEvictedAfterCommit() {
+        cache.get(1, id -> Optional.of(cafe(id, 180)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.invalidate(1);
+        // Una lectura concurrente, antes del commit, vuelve a cargar el precio anterior
+        cache.get(1, id -> Optional.of(cafe(id, 180)));
+        assertThat(cache.get(1, id -> Optional.of(cafe(id, 250)))).hasValueSatisfying(
+                cafe -> assertThat(cafe.getPrecio()).isEqualTo(Money.ofCents(180)));
+
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThat(cache.get(1, id -> Optional.of(cafe(id, 250)))).hasValueSatisfying(
+                cafe -> assertThat(cafe.getPrecio()).isEqualTo(Money.ofCents(250)));
+    }
+
+    @Test
+    void invalidateAllClearsMenuAgainAfterCommit() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.getMenu(() -> List.of(cafe(loads.incrementAndGet(), 180)));
+        String version = cache.getVersion();
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.invalidateAll();
+        cache.getMenu(() -> List.of(cafe(loads.incrementAndGet(), 180)));
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThat(cache.getMenu(() -> List.of(cafe(loads.incrementAndGet(), 250)))).singleElement()
+                .satisfies(cafe -> assertThat(cafe.getPrecio()).isEqualTo(Money.ofCents(250)));
+        assertThat(loads).hasValue(3);
+        assertThat(cache.getVersion()).isNotEqualTo(version);
+    }
+
+    @Test
+    void loadStartedBeforeInvalidationIsNotStored() {
+        cache.get(1, id -> {
+            // La invalidación llega mientras se lee la base de datos
+            cache.invalidate(id);
+            return Optional.of(cafe(id, 180));
+        });
+
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(1, id -> {
+            loads.incrementAndGet();
+            return Optional.of(cafe(id, 250));
+        });
+        assertThat(loads).hasValue(1);
+    }
+
+    private static Cafe cafe(int id, long cents) {
+        return new Cafe(id, "Café " + id, "Descripción", Money.ofCents(cents));
+    }
+}
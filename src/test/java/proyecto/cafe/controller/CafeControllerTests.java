@@ -0,0 +1,115 @@
+package proyecto.cafe.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import proyecto.cafe.entity.Cafe;
+import proyecto.cafe.money.Money;
+import proyecto.cafe.repository.CafeRepository;
+import proyecto.cafe.service.CafeService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+class CafeControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CafeRepository cafeRepository;
+
+    @Autowired
+    private CafeService cafeService;
+
+    private Cafe cafe;
+
+    @BeforeEach
+    void setUp() {
+        cafe = cafeRepository.save(new Cafe(null, "Cortado", "Con leche", Money.ofCents(180)));
+    }
+
+    @Test
+    void createRejectsNonPositivePrice() throws Exception {
+        for (String precio : new String[] {"0", "-1.50"}) {
+            mockMvc.perform(post("/api/cafes").contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"nombre\":\"Latte\",\"descripcion\":\"Con espuma\",\"precio\":" + precio + "}"))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Test
+    void updateValidatesBeforeLookingUpTheCafe() throws Exception {
+        mockMvc.perform(put("/api/cafes/" + cafe.getId()).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\":\"Cortado\",\"descripcion\":\"Con leche\",\"precio\":-2}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(put("/api/cafes/" + cafe.getId()).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\":\"  \",\"descripcion\":\"Con leche\",\"precio\":2}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(put("/api/cafes/999999").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\":\"Cortado\",\"descripcion\":\"Con leche\",\"precio\":2}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void patchUpdatesOnlyGivenFields() throws Exception {
+        mockMvc.perform(patch("/api/cafes/" + cafe.getId()).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"precio\":2.10,\"version\":" + cafe.getVersion() + "}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(cafe.getVersion() + 1));
+
+        Cafe patched = cafeRepository.findById(cafe.getId()).orElseThrow();
+        assertThat(patched.getPrecio()).isEqualTo(Money.ofCents(210));
+        assertThat(patched.getNombre()).isEqualTo("Cortado");
+    }
+
+    @Test
+    void patchRejectsInvalidFields() throws Exception {
+        for (String changes : new String[] {"\"nombre\":\" \"", "\"descripcion\":\"\"", "\"precio\":0", "\"precio\":-1"}) {
+            mockMvc.perform(patch("/api/cafes/" + cafe.getId()).contentType(MediaType.APPLICATION_JSON)
+                            .content("{" + changes + ",\"version\":" + cafe.getVersion() + "}"))
+                    .andExpect(status().isBadRequest());
+        }
+        mockMvc.perform(patch("/api/cafes/" + cafe.getId()).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"version\":" + cafe.getVersion() + "}"))
+                .andExpect(status().isBadRequest());
+        assertThat(cafeRepository.findById(cafe.getId()).orElseThrow().getVersion()).isEqualTo(cafe.getVersion());
+    }
+
+    @Test
+    void patchOfMissingCafeReturnsNotFound() throws Exception {
+        mockMvc.perform(patch("/api/cafes/999999").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"precio\":2,\"version\":0}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void patchWithStaleVersionReturnsConflict() throws Exception {
+        mockMvc.perform(patch("/api/cafes/" + cafe.getId()).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"precio\":2,\"version\":" + (cafe.getVersion() + 1) + "}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void serviceValidatesPatchWithoutController() {
+        Cafe changes = new Cafe(null, null, null, Money.ofCents(-100));
+        changes.setVersion(cafe.getVersion());
+
+        assertThatThrownBy(() -> cafeService.patchCafe(cafe.getId(), changes))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("mayor que cero");
+    }
+}
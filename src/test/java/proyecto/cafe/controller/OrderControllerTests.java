@@ -0,0 +1,59 @@
+package proyecto.cafe.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import proyecto.cafe.entity.Customer;
+import proyecto.cafe.repository.CustomerRepository;
+
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+class OrderControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        customer = customerRepository.save(new Customer(null, "Cliente", UUID.randomUUID() + "@cafe.es"));
+    }
+
+    @Test
+    void historyRejectsInvalidPageParameters() throws Exception {
+        String history = "/api/orders/customer/" + customer.getId() + "/history";
+        mockMvc.perform(get(history).param("page", "-1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("El número de página no puede ser negativo"));
+        mockMvc.perform(get(history).param("size", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("El tamaño de página debe ser mayor que cero"));
+        // El cliente existe: el historial vacío no es un 404
+        mockMvc.perform(get(history))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(0));
+    }
+
+    @Test
+    void historyOfUnknownCustomerIsNotFound() throws Exception {
+        mockMvc.perform(get("/api/orders/customer/999999/history"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string("Cliente no encontrado"));
+    }
+}
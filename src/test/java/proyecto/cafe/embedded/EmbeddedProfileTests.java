@@ -0,0 +1,61 @@
+package proyecto.cafe.embedded;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.datasource.url=" + EmbeddedProfileTests.URL
+})
+@ActiveProfiles("embedded")
+@AutoConfigureMockMvc
+class EmbeddedProfileTests {
+
+    static final String URL = "jdbc:h2:mem:embedded-no-flyway;DB_CLOSE_DELAY=-1";
+
+    @TempDir
+    static Path directory;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        // Esquema creado fuera de la aplicación, que arranca con Flyway desactivado
+        Flyway.configure()
+                .dataSource(URL, "sa", "")
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .load()
+                .migrate();
+        registry.add("cafe.embedded.journal.directory", () -> directory.resolve("journal").toString());
+        registry.add("cafe.embedded.snapshot.file", () -> directory.resolve("snapshot.sql.gz").toString());
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderJournal orderJournal;
+
+    @Test
+    void journalIsOpenWithoutFlyway() throws Exception {
+        mockMvc.perform(post("/api/cafes").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\":\"Cortado\",\"descripcion\":\"Con leche\",\"precio\":1.80}"))
+                .andExpect(status().is2xxSuccessful());
+
+        assertThat(orderJournal.readAll()).singleElement()
+                .satisfies(entry -> assertThat(entry.getCafe().getNombre()).isEqualTo("Cortado"));
+    }
+}
@@ -0,0 +1,86 @@
+package proyecto.cafe.embedded;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import proyecto.cafe.entity.Cafe;
+import proyecto.cafe.entity.Customer;
+import proyecto.cafe.money.Money;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmbeddedSnapshotStoreTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restartRecoversSnapshotAndJournalTail() throws IOException {
+        DataSource before = dataSource("before");
+        OrderJournal journal = new OrderJournal(directory.resolve("journal"), 4096, true);
+        journal.open();
+        EmbeddedSnapshotStore store = store(before, journal);
+        store.migrate(flyway(before));
+
+        JdbcTemplate jdbc = new JdbcTemplate(before);
+        jdbc.update("INSERT INTO cafes (id, nombre, descripcion, precio) VALUES (1, 'Cortado', 'Con leche', 1.80)");
+        jdbc.update("INSERT INTO customers (id, name, email) VALUES (1, 'Ana', 'ana@cafe.es')");
+        jdbc.update("INSERT INTO orders (id, customer_id, total, creation_date) VALUES (1, 1, 3.60, CURRENT_TIMESTAMP)");
+        jdbc.update("INSERT INTO order_items (order_id, cafe_id, cantidad, precio) VALUES (1, 1, 2, 1.80)");
+        store.snapshot();
+
+        // Cambios posteriores a la instantánea, solo en el diario; el último usa un cliente inexistente
+        journal.recordCafeCreated(new Cafe(2, "Latte", "Con espuma", Money.ofCents(220)));
+        journal.recordCreated(List.of(OrderJournalTests.order(2, 2, 2)));
+        journal.recordCustomerCreated(new Customer(2, "Luis", "luis@cafe.es"));
+        journal.recordCreated(List.of(OrderJournalTests.order(3, 1, 1)));
+        journal.recordDeleted(3);
+        journal.recordCreated(List.of(OrderJournalTests.order(4, 99, 1)));
+        journal.close();
+
+        DataSource after = dataSource("after");
+        OrderJournal reopened = new OrderJournal(directory.resolve("journal"), 4096, true);
+        // El diario se abre al crear el componente, antes de que Flyway aplique la instantánea y el diario
+        reopened.open();
+        store(after, reopened).migrate(flyway(after));
+        reopened.close();
+
+        JdbcTemplate recovered = new JdbcTemplate(after);
+        assertThat(recovered.queryForList("SELECT id FROM orders ORDER BY id", Integer.class)).containsExactly(1, 2);
+        assertThat(recovered.queryForList("SELECT id FROM customers ORDER BY id", Integer.class)).containsExactly(1, 2);
+        assertThat(recovered.queryForList("SELECT id FROM cafes ORDER BY id", Integer.class)).containsExactly(1, 2);
+        assertThat(recovered.queryForObject("SELECT COUNT(*) FROM order_items WHERE order_id = 2", Integer.class)).isEqualTo(1);
+
+        // Las identidades siguen después de los IDs del diario, incluidos los de órdenes eliminadas o descartadas
+        recovered.update("INSERT INTO orders (customer_id, total, creation_date) VALUES (1, 0, CURRENT_TIMESTAMP)");
+        recovered.update("INSERT INTO customers (name, email) VALUES ('Eva', 'eva@cafe.es')");
+        assertThat(recovered.queryForObject("SELECT MAX(id) FROM orders", Integer.class)).isEqualTo(5);
+        assertThat(recovered.queryForObject("SELECT MAX(id) FROM customers", Integer.class)).isEqualTo(3);
+    }
+
+    private EmbeddedSnapshotStore store(DataSource dataSource, OrderJournal journal) {
+        EmbeddedSnapshotStore store = new EmbeddedSnapshotStore(directory.resolve("snapshot.sql.gz").toString());
+        ReflectionTestUtils.setField(store, "dataSource", dataSource);
+        ReflectionTestUtils.setField(store, "orderJournal", journal);
+        return store;
+    }
+
+    private static DataSource dataSource(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    private static Flyway flyway(DataSource dataSource) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .load();
+    }
+}
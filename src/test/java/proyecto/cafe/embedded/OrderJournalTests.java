@@ -0,0 +1,184 @@
+package proyecto.cafe.embedded;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import proyecto.cafe.entity.Cafe;
+import proyecto.cafe.entity.Customer;
+import proyecto.cafe.entity.Order;
+import proyecto.cafe.entity.OrderItem;
+import proyecto.cafe.money.Money;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderJournalTests {
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void recordsAreReadBackInOrder() throws IOException {
+        OrderJournal journal = open();
+        Cafe cafe = new Cafe(7, "Cortado", "Con leche ñ", Money.ofCents(180));
+        cafe.setVersion(2L);
+        journal.recordCafeCreated(cafe);
+        journal.recordCustomerCreated(new Customer(3, "Ana", "ana@cafe.es"));
+        journal.recordCreated(List.of(order(10, 3, 7)));
+        journal.recordDeleted(10);
+        journal.close();
+
+        List<OrderJournal.Entry> entries = new OrderJournal(directory, 4096, true).readAll();
+
+        assertThat(entries).hasSize(4);
+        Cafe readCafe = entries.get(0).getCafe();
+        assertThat(readCafe.getId()).isEqualTo(7);
+        assertThat(readCafe.getNombre()).isEqualTo("Cortado");
+        assertThat(readCafe.getDescripcion()).isEqualTo("Con leche ñ");
+        assertThat(readCafe.getPrecio()).isEqualTo(Money.ofCents(180));
+        assertThat(readCafe.getVersion()).isEqualTo(2L);
+        assertThat(entries.get(0).isOrder()).isFalse();
+
+        Customer readCustomer = entries.get(1).getCustomer();
+        assertThat(readCustomer.getId()).isEqualTo(3);
+        assertThat(readCustomer.getName()).isEqualTo("Ana");
+        assertThat(readCustomer.getEmail()).isEqualTo("ana@cafe.es");
+
+        Order readOrder = entries.get(2).getOrder();
+        assertThat(readOrder.getId()).isEqualTo(10);
+        assertThat(readOrder.getCustomer().getId()).isEqualTo(3);
+        assertThat(readOrder.getCreationDate()).isEqualTo(LocalDateTime.of(2024, 1, 1, 10, 0, 0, 123456000));
+        assertThat(readOrder.getTotal()).isEqualTo(Money.ofCents(360));
+        assertThat(readOrder.getItems()).singleElement().satisfies(item -> {
+            assertThat(item.getCafe().getId()).isEqualTo(7);
+            assertThat(item.getCantidad()).isEqualTo(2);
+            assertThat(item.getPrecio()).isEqualTo(Money.ofCents(180));
+        });
+
+        assertThat(entries.get(3).isDeleted()).isTrue();
+        assertThat(entries.get(3).getId()).isEqualTo(10);
+    }
+
+    @Test
+    void tornTailRecordIsIgnored() throws IOException {
+        OrderJournal journal = open();
+        journal.recordCreated(List.of(order(1, 1, 1)));
+        journal.recordCreated(List.of(order(2, 1, 1)));
+        journal.recordCreated(List.of(order(3, 1, 1)));
+        journal.close();
+
+        // Simula una escritura interrumpida: el último registro queda con el contenido a medias
+        Path segment = onlySegment();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(4);
+            long position = 0;
+            for (int i = 0; i < 2; i++) {
+                header.clear();
+                channel.read(header, position);
+                position += 8 + header.getInt(0);
+            }
+            channel.write(ByteBuffer.allocate(12), position + 20);
+        }
+
+        List<OrderJournal.Entry> entries = new OrderJournal(directory, 4096, true).readAll();
+        assertThat(entries).extracting(OrderJournal.Entry::getId).containsExactly(1, 2);
+    }
+
+    @Test
+    void rotatedSegmentsAreReadAndCompacted() throws IOException {
+        OrderJournal journal = open();
+        journal.recordCreated(List.of(order(1, 1, 1)));
+        long firstKept = journal.rotate();
+        journal.recordCreated(List.of(order(2, 1, 1)));
+
+        assertThat(journal.deleteBefore(firstKept)).isEqualTo(1);
+        journal.close();
+
+        assertThat(new OrderJournal(directory, 4096, true).readAll())
+                .extracting(OrderJournal.Entry::getId).containsExactly(2);
+    }
+
+    @Test
+    void closedJournalRejectsWrites() throws IOException {
+        OrderJournal journal = open();
+        journal.close();
+
+        assertThatThrownBy(() -> journal.recordDeleted(1)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void recordsAreWrittenBeforeCommitAndUndoneOnRollback() throws IOException {
+        OrderJournal journal = open();
+        TransactionSynchronizationManager.initSynchronization();
+        journal.recordCreated(List.of(order(1, 1, 1)));
+        assertThat(journal.readAll()).isEmpty();
+
+        TransactionSynchronizationUtils.triggerBeforeCommit(false);
+        assertThat(journal.readAll()).extracting(OrderJournal.Entry::getId).containsExactly(1);
+
+        // La confirmación falla después de anotar la orden: se anota su eliminación
+        TransactionSynchronizationUtils.invokeAfterCompletion(
+                TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+        journal.close();
+
+        List<OrderJournal.Entry> entries = new OrderJournal(directory, 4096, true).readAll();
+        assertThat(entries).extracting(OrderJournal.Entry::getId).containsExactly(1, 1);
+        assertThat(entries.get(1).isDeleted()).isTrue();
+    }
+
+    @Test
+    void journalErrorFailsTheCommit() throws IOException {
+        OrderJournal journal = open();
+        journal.close();
+        TransactionSynchronizationManager.initSynchronization();
+        journal.recordCreated(List.of(order(1, 1, 1)));
+
+        assertThatThrownBy(() -> TransactionSynchronizationUtils.triggerBeforeCommit(false))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private OrderJournal open() throws IOException {
+        OrderJournal journal = new OrderJournal(directory, 4096, true);
+        journal.open();
+        return journal;
+    }
+
+    private Path onlySegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".journal"))
+                    .reduce((a, b) -> {
+                        throw new IllegalStateException("Más de un segmento");
+                    })
+                    .orElseThrow();
+        }
+    }
+
+    static Order order(int id, int customerId, int cafeId) {
+        Cafe cafe = new Cafe(cafeId, "Cortado", "Con leche", Money.ofCents(180));
+        Order order = new Order(id, new Customer(customerId, "Ana", "ana@cafe.es"),
+                List.of(new OrderItem(null, cafe, 2, cafe.getPrecio())));
+        order.setCreationDate(LocalDateTime.of(2024, 1, 1, 10, 0, 0, 123456000));
+        order.calculateTotal();
+        return order;
+    }
+}
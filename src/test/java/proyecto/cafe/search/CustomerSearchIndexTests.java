@@ -0,0 +1,92 @@
+package proyecto.cafe.search;
+
+import org.junit.jupiter.api.Test;
+import proyecto.cafe.entity.Customer;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerSearchIndexTests {
+
+    private final CustomerSearchIndex index = new CustomerSearchIndex();
+
+    @Test
+    void resultsAreRankedByWhereTheMatchStarts() {
+        index.put(1, "Juana Pérez", "jp@cafe.es");
+        index.put(2, "Marta Ruiz", "juana.r@cafe.es");
+        index.put(3, "Juan Ana", "anajuan@cafe.es");
+        index.put(4, "Ana Juana", "ana@cafe.es");
+
+        // Inicio del nombre, inicio del email, inicio de otra palabra y por último cualquier posición
+        assertThat(ids(index.search("juana", 10))).containsExactly(1, 2, 4);
+        assertThat(ids(index.search("uan", 10))).containsExactlyInAnyOrder(1, 2, 3, 4);
+        assertThat(ids(index.search("ana", 10))).startsWith(4).contains(3, 1);
+        // Las búsquedas ignoran mayúsculas y acentos
+        assertThat(ids(index.search("PEREZ", 10))).containsExactly(1);
+    }
+
+    @Test
+    void shortQueriesMatchOnlyWordPrefixes() {
+        index.put(1, "Ana", "a1@cafe.es");
+        index.put(2, "Juana", "j@cafe.es");
+        index.put(3, "Luis Andrés", "l@cafe.es");
+
+        assertThat(ids(index.search("an", 10))).containsExactly(1, 3);
+        assertThat(ids(index.search("ana", 10))).containsExactly(1, 2);
+    }
+
+    @Test
+    void removedCustomersAreNotReturned() {
+        index.put(1, "Ana", "ana@cafe.es");
+        index.put(2, "Anabel", "anabel@cafe.es");
+
+        index.remove(1);
+
+        assertThat(ids(index.search("ana", 10))).containsExactly(2);
+        assertThat(index.contains(1)).isFalse();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void updatedCustomersAreFoundOnlyByTheirCurrentText() {
+        index.put(1, "Ana", "ana@cafe.es");
+
+        index.patch(1, "Beatriz", null);
+
+        assertThat(index.search("ana", 10)).singleElement().satisfies(customer -> {
+            assertThat(customer.getName()).isEqualTo("Beatriz");
+            assertThat(customer.getEmail()).isEqualTo("ana@cafe.es");
+        });
+        index.patch(1, null, "bea@cafe.es");
+        assertThat(index.search("ana", 10)).isEmpty();
+        assertThat(ids(index.search("bea", 10))).containsExactly(1);
+    }
+
+    @Test
+    void obsoletePostingsAreCompacted() {
+        for (int id = 1; id <= 100; id++) {
+            index.put(id, "Cliente " + id, "cliente" + id + "@cafe.es");
+        }
+        long initial = index.postingCount();
+
+        for (int round = 0; round < 200; round++) {
+            for (int id = 1; id <= 100; id++) {
+                index.put(id, "Nombre " + round + " " + id, "correo" + round + "." + id + "@cafe.es");
+            }
+        }
+        for (int id = 51; id <= 100; id++) {
+            index.remove(id);
+        }
+
+        // Sin compactar serían más de 200 veces las entradas iniciales
+        assertThat(index.postingCount()).isLessThan(initial * 4);
+        assertThat(ids(index.search("nombre 199 7", 10))).containsExactly(7);
+        assertThat(index.search("correo199.99", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(50);
+    }
+
+    private static List<Integer> ids(List<Customer> customers) {
+        return customers.stream().map(Customer::getId).toList();
+    }
+}
@@ -0,0 +1,113 @@
+package proyecto.cafe.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import proyecto.cafe.cache.CafeCache;
+import proyecto.cafe.dto.RepriceRequest;
+import proyecto.cafe.entity.Cafe;
+import proyecto.cafe.money.Money;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({CafeService.class, CafeCache.class})
+class CafeServiceTests {
+
+    @Autowired
+    private CafeService cafeService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Cafe cortado;
+    private Cafe latte;
+
+    @BeforeEach
+    void setUp() {
+        cortado = cafeService.crearCafe(new Cafe(null, "Cortado", "Con leche", Money.ofCents(150)));
+        latte = cafeService.crearCafe(new Cafe(null, "Latte grande", "Con espuma", Money.ofCents(300)));
+    }
+
+    @Test
+    void repriceSkipsCafesWhosePriceWouldNotBePositive() {
+        long cortadoVersion = version(cortado.getId());
+        long latteVersion = version(latte.getId());
+
+        int updated = cafeService.repriceCafes(byIds(List.of(cortado.getId(), latte.getId()), null, Money.ofCents(-150)));
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(price(cortado.getId())).isEqualByComparingTo("1.50");
+        assertThat(version(cortado.getId())).isEqualTo(cortadoVersion);
+        assertThat(price(latte.getId())).isEqualByComparingTo("1.50");
+        assertThat(version(latte.getId())).isEqualTo(latteVersion + 1);
+    }
+
+    @Test
+    void repriceByPercentRoundsToTheCentAndInvalidatesTheMenu() {
+        assertThat(cafeService.getMenu()).extracting(Cafe::getPrecio).contains(Money.ofCents(300));
+        String version = cafeService.getMenuVersion();
+        RepriceRequest request = new RepriceRequest();
+        request.setNamePattern("%LATTE%");
+        request.setPercent(new BigDecimal("3.333"));
+
+        assertThat(cafeService.repriceCafes(request)).isEqualTo(1);
+
+        assertThat(price(latte.getId())).isEqualByComparingTo("3.10");
+        assertThat(price(cortado.getId())).isEqualByComparingTo("1.50");
+        assertThat(cafeService.getMenuVersion()).isNotEqualTo(version);
+        // El UPDATE no pasa por el contexto de persistencia de la transacción de la prueba
+        entityManager.clear();
+        assertThat(cafeService.getMenu()).extracting(Cafe::getPrecio)
+                .containsExactly(Money.ofCents(150), Money.ofCents(310));
+    }
+
+    @Test
+    void repriceRejectsInvalidRequests() {
+        RepriceRequest both = byIds(List.of(cortado.getId()), BigDecimal.TEN, null);
+        both.setNamePattern("%cortado%");
+        assertThatThrownBy(() -> cafeService.repriceCafes(both)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThatThrownBy(() -> cafeService.repriceCafes(byIds(List.of(cortado.getId()), BigDecimal.TEN, Money.ofCents(10))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> cafeService.repriceCafes(byIds(List.of(cortado.getId()), null, null)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> cafeService.repriceCafes(byIds(List.of(cortado.getId()), new BigDecimal("-100"), null)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("-100");
+        assertThatThrownBy(() -> cafeService.repriceCafes(byIds(List.of(), BigDecimal.TEN, null)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(price(cortado.getId())).isEqualByComparingTo("1.50");
+    }
+
+    private static RepriceRequest byIds(List<Integer> ids, BigDecimal percent, Money amount) {
+        RepriceRequest request = new RepriceRequest();
+        request.setIds(ids);
+        request.setPercent(percent);
+        request.setAmount(amount);
+        return request;
+    }
+
+    private BigDecimal price(Integer id) {
+        return jdbcTemplate.queryForObject("SELECT precio FROM cafes WHERE id = ?", BigDecimal.class, id);
+    }
+
+    private long version(Integer id) {
+        return jdbcTemplate.queryForObject("SELECT version FROM cafes WHERE id = ?", Long.class, id);
+    }
+}
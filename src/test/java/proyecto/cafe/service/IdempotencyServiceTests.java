@@ -0,0 +1,199 @@
+package proyecto.cafe.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import proyecto.cafe.dto.StoredResponse;
+import proyecto.cafe.entity.Cafe;
+import proyecto.cafe.entity.Customer;
+import proyecto.cafe.money.Money;
+import proyecto.cafe.repository.CafeRepository;
+import proyecto.cafe.repository.CustomerRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "cafe.orders.idempotency.ttl=PT2S"
+})
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+class IdempotencyServiceTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CafeRepository cafeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String order;
+    private String otherOrder;
+
+    @BeforeEach
+    void setUp() {
+        Customer customer = customerRepository.save(new Customer(null, "Cliente", UUID.randomUUID() + "@cafe.es"));
+        Cafe cafe = cafeRepository.save(new Cafe(null, "Café", "Descripción", Money.ofCents(250)));
+        order = orderJson(customer.getId(), cafe.getId(), 2);
+        otherOrder = orderJson(customer.getId(), cafe.getId(), 3);
+    }
+
+    @Test
+    void repeatedRequestReplaysStoredResponse() throws Exception {
+        String key = UUID.randomUUID().toString();
+        long before = countOrders();
+
+        MvcResult first = mockMvc.perform(post("/api/orders").header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON).content(order))
+                .andExpect(status().isCreated())
+                .andReturn();
+        MvcResult second = mockMvc.perform(post("/api/orders").header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON).content(order))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andReturn();
+
+        assertThat(second.getResponse().getContentAsString()).isEqualTo(first.getResponse().getContentAsString());
+        assertThat(countOrders()).isEqualTo(before + 1);
+    }
+
+    @Test
+    void keyReusedWithAnotherOrderIsRejected() throws Exception {
+        String key = UUID.randomUUID().toString();
+        mockMvc.perform(post("/api/orders").header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON).content(order))
+                .andExpect(status().isCreated());
+        long before = countOrders();
+
+        mockMvc.perform(post("/api/orders").header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON).content(otherOrder))
+                .andExpect(status().isUnprocessableEntity());
+        assertThat(countOrders()).isEqualTo(before);
+    }
+
+    @Test
+    void concurrentRequestsWithSameKeyCreateOneOrder() throws Exception {
+        String key = UUID.randomUUID().toString();
+        long before = countOrders();
+        List<Integer> statuses = runConcurrently(8, () -> mockMvc.perform(post("/api/orders")
+                        .header("Idempotency-Key", key).contentType(MediaType.APPLICATION_JSON).content(order))
+                .andReturn().getResponse().getStatus());
+
+        // Las que llegan mientras la primera se procesa reciben su respuesta o 409 para reintentar
+        assertThat(statuses).allMatch(status -> status == 201 || status == 409).contains(201);
+        assertThat(countOrders()).isEqualTo(before + 1);
+    }
+
+    @Test
+    void claimedKeyRunsNonTransactionalActionOnce() throws Exception {
+        String key = UUID.randomUUID().toString();
+        AtomicInteger submitted = new AtomicInteger();
+        List<StoredResponse> responses = runConcurrently(8, () -> idempotencyService.executeAfterClaim(key, "hash", () -> {
+            submitted.incrementAndGet();
+            sleep(200);
+            return ResponseEntity.accepted().body(Map.of("ticketId", "t"));
+        }));
+
+        assertThat(submitted).hasValue(1);
+        assertThat(responses).filteredOn(response -> !response.isPending()).allMatch(response -> response.getStatus() == 202);
+        assertThat(idempotencyService.find(key)).hasValueSatisfying(response -> assertThat(response.getStatus()).isEqualTo(202));
+    }
+
+    @Test
+    void failedActionReleasesTheKey() {
+        String key = UUID.randomUUID().toString();
+        assertThatThrownBy(() -> idempotencyService.executeAfterClaim(key, "hash", () -> {
+            throw new IllegalStateException("Cola llena");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(idempotencyService.find(key)).isEmpty();
+        assertThat(idempotencyService.executeAfterClaim(key, "hash", () -> ResponseEntity.accepted().body("ok")).getStatus())
+                .isEqualTo(202);
+    }
+
+    @Test
+    void expiredKeyCreatesANewOrder() throws Exception {
+        String key = UUID.randomUUID().toString();
+        mockMvc.perform(post("/api/orders").header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON).content(order))
+                .andExpect(status().isCreated());
+        long before = countOrders();
+
+        sleep(2100);
+        assertThat(idempotencyService.find(key)).isEmpty();
+        mockMvc.perform(post("/api/orders").header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON).content(otherOrder))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+        assertThat(countOrders()).isEqualTo(before + 1);
+    }
+
+    private long countOrders() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Long.class);
+    }
+
+    private static String orderJson(int customerId, int cafeId, int cantidad) {
+        return "{\"customer\":{\"id\":" + customerId + "},\"items\":[{\"cafe\":{\"id\":" + cafeId + "},\"cantidad\":" + cantidad + "}]}";
+    }
+
+    private static <T> List<T> runConcurrently(int threads, Callable<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package proyecto.cafe.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import proyecto.cafe.entity.Cafe;
+import proyecto.cafe.entity.Customer;
+import proyecto.cafe.entity.Order;
+import proyecto.cafe.entity.OrderItem;
+import proyecto.cafe.money.Money;
+import proyecto.cafe.repository.CafeRepository;
+import proyecto.cafe.repository.CustomerRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "cafe.orders.archive.after-days=30",
+        "cafe.orders.archive.batch-size=2",
+        "cafe.orders.archive.pause-ms=0"
+})
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+class OrderArchiveServiceTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CafeRepository cafeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Customer customer;
+    private Cafe cafe;
+
+    @BeforeEach
+    void setUp() {
+        customer = customerRepository.save(new Customer(null, "Cliente", UUID.randomUUID() + "@cafe.es"));
+        cafe = cafeRepository.save(new Cafe(null, "Café", "Descripción", Money.ofCents(250)));
+    }
+
+    @Test
+    void oldOrdersAreMovedToTheArchiveAndStayReadable() throws Exception {
+        List<Integer> old = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            old.add(createOrder(LocalDateTime.now().minusDays(60)));
+        }
+        Integer recent = createOrder(LocalDateTime.now());
+
+        // Tres órdenes con bloques de dos: el archivo recorre más de un bloque
+        mockMvc.perform(post("/api/orders/archive"))
+                .andExpect(status().isOk());
+
+        for (Integer id : old) {
+            assertThat(count("orders", id)).isZero();
+            assertThat(count("orders_archive", id)).isEqualTo(1);
+            mockMvc.perform(get("/api/orders/" + id))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value(id));
+        }
+        assertThat(count("orders", recent)).isEqualTo(1);
+        mockMvc.perform(get("/api/orders/customer/" + customer.getId() + "/history"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(4))
+                .andExpect(jsonPath("$.content[0].id").value(recent));
+    }
+
+    @Test
+    void deletingAnArchivedOrderReturnsConflict() throws Exception {
+        Integer archived = createOrder(LocalDateTime.now().minusDays(60));
+        Integer recent = createOrder(LocalDateTime.now());
+        mockMvc.perform(post("/api/orders/archive"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(delete("/api/orders/" + archived))
+                .andExpect(status().isConflict());
+        assertThat(count("orders_archive", archived)).isEqualTo(1);
+
+        mockMvc.perform(delete("/api/orders/" + recent))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/orders/999999"))
+                .andExpect(status().isNotFound());
+    }
+
+    private Integer createOrder(LocalDateTime creationDate) {
+        Order order = orderService.crearOrder(new Order(null, new Customer(customer.getId(), null, null),
+                new ArrayList<>(List.of(new OrderItem(null, new Cafe(cafe.getId(), null, null, null), 2, null)))));
+        jdbcTemplate.update("UPDATE orders SET creation_date = ? WHERE id = ?", Timestamp.valueOf(creationDate), order.getId());
+        return order.getId();
+    }
+
+    private long count(String table, Integer id) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE id = ?", Long.class, id);
+    }
+}
@@ -0,0 +1,121 @@
+package proyecto.cafe.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import proyecto.cafe.entity.Cafe;
+import proyecto.cafe.entity.Customer;
+import proyecto.cafe.money.Money;
+import proyecto.cafe.repository.CafeRepository;
+import proyecto.cafe.repository.CustomerRepository;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "cafe.orders.batch-size=2"
+})
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+class OrderBatchServiceTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CafeRepository cafeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Customer customer;
+    private Cafe cafe;
+
+    @BeforeEach
+    void setUp() {
+        customer = customerRepository.save(new Customer(null, "Cliente", UUID.randomUUID() + "@cafe.es"));
+        cafe = cafeRepository.save(new Cafe(null, "Café", "Descripción", Money.ofCents(250)));
+    }
+
+    @Test
+    void eachRecordGetsItsOwnResult() throws Exception {
+        long before = countOrders();
+        String batch = "[" + String.join(",",
+                order(customer.getId(), cafe.getId(), 1),
+                order(999999, cafe.getId(), 1),
+                order(customer.getId(), 999999, 1),
+                order(customer.getId(), cafe.getId(), 0),
+                "{\"customer\":{\"id\":" + customer.getId() + "},\"items\":[]}",
+                order(customer.getId(), cafe.getId(), 2),
+                order(customer.getId(), cafe.getId(), 3)) + "]";
+
+        // Con lotes de dos, las tres órdenes válidas se insertan en dos grupos
+        mockMvc.perform(post("/api/orders/batch").contentType(MediaType.APPLICATION_JSON).content(batch))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(7))
+                .andExpect(jsonPath("$[*].index").value(contains(0, 1, 2, 3, 4, 5, 6)))
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[0].total").value(2.50))
+                .andExpect(jsonPath("$[1].status").value("REJECTED"))
+                .andExpect(jsonPath("$[1].error").value("Cliente no encontrado: 999999"))
+                .andExpect(jsonPath("$[2].error").value("Cafés no encontrados: [999999]"))
+                .andExpect(jsonPath("$[3].error").value("La cantidad debe ser mayor que cero"))
+                .andExpect(jsonPath("$[4].error").value("La orden debe incluir un cliente y al menos un item"))
+                .andExpect(jsonPath("$[5].status").value("CREATED"))
+                .andExpect(jsonPath("$[5].total").value(5.00))
+                .andExpect(jsonPath("$[6].status").value("CREATED"))
+                .andExpect(jsonPath("$[6].total").value(7.50));
+
+        assertThat(countOrders()).isEqualTo(before + 3);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM order_items i JOIN orders o ON o.id = i.order_id WHERE o.customer_id = ?",
+                Long.class, customer.getId())).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT SUM(total) FROM orders WHERE customer_id = ?", BigDecimal.class, customer.getId()))
+                .isEqualByComparingTo("15.00");
+    }
+
+    @Test
+    void ndjsonBatchIsImportedAndInvalidLinesAreReported() throws Exception {
+        long before = countOrders();
+        String batch = order(customer.getId(), cafe.getId(), 1) + "\n\n" + order(999999, cafe.getId(), 1) + "\n";
+
+        mockMvc.perform(post("/api/orders/batch").contentType("application/x-ndjson").content(batch))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[1].status").value("REJECTED"));
+        assertThat(countOrders()).isEqualTo(before + 1);
+
+        mockMvc.perform(post("/api/orders/batch").contentType("application/x-ndjson")
+                        .content(order(customer.getId(), cafe.getId(), 1) + "\n{no es json\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(startsWith("JSON no válido en la línea 2")));
+        assertThat(countOrders()).isEqualTo(before + 1);
+    }
+
+    private long countOrders() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Long.class);
+    }
+
+    private static String order(int customerId, int cafeId, int cantidad) {
+        return "{\"customer\":{\"id\":" + customerId + "},\"items\":[{\"cafe\":{\"id\":" + cafeId + "},\"cantidad\":" + cantidad + "}]}";
+    }
+}
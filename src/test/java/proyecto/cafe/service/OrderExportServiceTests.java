@@ -0,0 +1,129 @@
+package proyecto.cafe.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import proyecto.cafe.entity.Cafe;
+import proyecto.cafe.entity.Customer;
+import proyecto.cafe.entity.Order;
+import proyecto.cafe.entity.OrderItem;
+import proyecto.cafe.money.Money;
+import proyecto.cafe.repository.CafeRepository;
+import proyecto.cafe.repository.CustomerRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "cafe.orders.export.fetch-size=2"
+})
+@AutoConfigureTestDatabase
+class OrderExportServiceTests {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2001, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2001, 1, 3, 0, 0);
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CafeRepository cafeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Customer customer;
+    private Cafe cortado;
+    private Cafe latte;
+    private Integer first;
+    private Integer second;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM order_items WHERE order_id IN (SELECT id FROM orders WHERE creation_date < ?)",
+                Timestamp.valueOf(TO.plusDays(1)));
+        jdbcTemplate.update("DELETE FROM orders WHERE creation_date < ?", Timestamp.valueOf(TO.plusDays(1)));
+        customer = customerRepository.save(new Customer(null, "Ana, \"la del café\"", UUID.randomUUID() + "@cafe.es"));
+        cortado = cafeRepository.save(new Cafe(null, "Cortado", "Con leche", Money.ofCents(180)));
+        latte = cafeRepository.save(new Cafe(null, "Latte", "Con espuma", Money.ofCents(250)));
+
+        // Una orden justo en el límite inferior, otra dentro, otra en el límite superior y otra antes del rango
+        first = createOrder(FROM, cortado, latte);
+        second = createOrder(FROM.plusDays(1), latte);
+        createOrder(TO, cortado);
+        createOrder(FROM.minusSeconds(1), cortado);
+    }
+
+    @Test
+    void ndjsonWritesOneLinePerOrderWithItsItems() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        orderExportService.exportNdjson(FROM, TO, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        JsonNode order = objectMapper.readTree(lines[0]);
+        assertThat(order.get("id").asInt()).isEqualTo(first);
+        assertThat(order.get("customer").get("name").asText()).isEqualTo(customer.getName());
+        assertThat(order.get("total").decimalValue()).isEqualByComparingTo("4.30");
+        assertThat(order.get("items")).hasSize(2);
+        assertThat(order.get("items").get(0).get("cafeId").asInt()).isEqualTo(cortado.getId());
+        assertThat(order.get("items").get(1).get("nombre").asText()).isEqualTo("Latte");
+        JsonNode next = objectMapper.readTree(lines[1]);
+        assertThat(next.get("id").asInt()).isEqualTo(second);
+        assertThat(next.get("items")).hasSize(1);
+    }
+
+    @Test
+    void csvWritesOneRowPerItem() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        orderExportService.exportCsv(FROM, TO, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize(4);
+        assertThat(lines.get(0)).startsWith("order_id,creation_date,");
+        assertThat(lines.subList(1, 4)).extracting(line -> line.substring(0, line.indexOf(',')))
+                .containsExactly(first.toString(), first.toString(), second.toString());
+        assertThat(lines.get(1)).contains(",\"Ana, \"\"la del café\"\"\",")
+                .contains("," + cortado.getId() + ",Cortado,1,1.80,4.30");
+    }
+
+    @Test
+    void withoutLimitsEveryOrderIsExported() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        orderExportService.exportNdjson(null, TO.plusDays(1), out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8).lines()).hasSize(4);
+    }
+
+    private Integer createOrder(LocalDateTime creationDate, Cafe... cafes) {
+        List<OrderItem> items = new ArrayList<>();
+        for (Cafe cafe : cafes) {
+            items.add(new OrderItem(null, new Cafe(cafe.getId(), null, null, null), 1, null));
+        }
+        Order order = orderService.crearOrder(new Order(null, new Customer(customer.getId(), null, null), items));
+        jdbcTemplate.update("UPDATE orders SET creation_date = ? WHERE id = ?", Timestamp.valueOf(creationDate), order.getId());
+        return order.getId();
+    }
+}
@@ -0,0 +1,221 @@
+package proyecto.cafe.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import proyecto.cafe.dto.IntakeTicket;
+import proyecto.cafe.entity.Cafe;
+import proyecto.cafe.entity.Customer;
+import proyecto.cafe.entity.Order;
+import proyecto.cafe.entity.OrderItem;
+import proyecto.cafe.intake.OrderIntakeJournal;
+import proyecto.cafe.money.Money;
+import proyecto.cafe.repository.CafeRepository;
+import proyecto.cafe.repository.CustomerRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "cafe.orders.intake.async=true",
+        "cafe.orders.intake.capacity=2",
+        "cafe.orders.intake.flush-size=1"
+})
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+class OrderIntakeServiceTests {
+
+    private static final Path JOURNAL = createTempDirectory().resolve("order-intake.journal");
+
+    @DynamicPropertySource
+    static void journal(DynamicPropertyRegistry registry) {
+        registry.add("cafe.orders.intake.journal", JOURNAL::toString);
+    }
+
+    @Autowired
+    private OrderIntakeService orderIntakeService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CafeRepository cafeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoSpyBean
+    private OrderBatchService orderBatchService;
+
+    private Customer customer;
+    private Cafe cafe;
+
+    @BeforeEach
+    void setUp() {
+        customer = customerRepository.save(new Customer(null, "Cliente", UUID.randomUUID() + "@cafe.es"));
+        cafe = cafeRepository.save(new Cafe(null, "Café", "Descripción", Money.ofCents(250)));
+    }
+
+    @Test
+    void submittedOrderIsSavedAndJournalTruncated() throws Exception {
+        long before = countOrders();
+
+        IntakeTicket ticket = orderIntakeService.submit(order(2));
+
+        assertThat(ticket.getStatus()).isEqualTo(IntakeTicket.Status.PENDING);
+        IntakeTicket saved = awaitTicket(ticket.getTicketId(), IntakeTicket.Status.CREATED);
+        assertThat(saved.getTotal()).isEqualTo(Money.ofCents(500));
+        assertThat(countOrders()).isEqualTo(before + 1);
+        // Con la cola vacía se vacían el diario y los tickets registrados
+        await(() -> size(JOURNAL) == 0 && countTicketRows() == 0);
+    }
+
+    @Test
+    void invalidOrderIsRejectedBeforeQueueing() {
+        Order order = order(2);
+        order.getItems().get(0).setCafe(new Cafe(-1, null, null, null));
+
+        assertThatThrownBy(() -> orderIntakeService.submit(order)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void fullQueueReturnsServiceUnavailable() throws Exception {
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            flushing.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return invocation.callRealMethod();
+        }).when(orderBatchService).importOrders(anyList(), anyString(), anyBoolean());
+        long before = countOrders();
+
+        List<String> tickets = new ArrayList<>();
+        try {
+            // La primera orden queda retenida en el hilo de guardado y las dos siguientes llenan la cola
+            tickets.add(orderIntakeService.submit(order(1)).getTicketId());
+            assertThat(flushing.await(5, TimeUnit.SECONDS)).isTrue();
+            tickets.add(orderIntakeService.submit(order(1)).getTicketId());
+            tickets.add(orderIntakeService.submit(order(1)).getTicketId());
+
+            mockMvc.perform(post("/api/orders").contentType(MediaType.APPLICATION_JSON).content(orderJson(1)))
+                    .andExpect(status().isServiceUnavailable());
+        } finally {
+            release.countDown();
+        }
+
+        for (String ticketId : tickets) {
+            awaitTicket(ticketId, IntakeTicket.Status.CREATED);
+        }
+        assertThat(countOrders()).isEqualTo(before + 3);
+    }
+
+    @Test
+    void replaySkipsTicketsSavedBeforeTheCrash() throws Exception {
+        orderIntakeService.stop();
+        long before = countOrders();
+
+        // Simula una caída entre el commit de un lote y su anotación en el diario
+        String saved = UUID.randomUUID().toString();
+        String pending = UUID.randomUUID().toString();
+        try (OrderIntakeJournal journal = new OrderIntakeJournal(JOURNAL, true)) {
+            journal.appendAccepted(saved, order(2));
+            journal.appendAccepted(pending, order(3));
+        }
+        jdbcTemplate.update("INSERT INTO order_intake_tickets (ticket_id, order_id, total, error) VALUES (?, ?, ?, ?)",
+                saved, 12345, Money.ofCents(500).toBigDecimal(), null);
+
+        orderIntakeService.start();
+
+        IntakeTicket replayed = awaitTicket(pending, IntakeTicket.Status.CREATED);
+        assertThat(replayed.getTotal()).isEqualTo(Money.ofCents(750));
+        assertThat(orderIntakeService.getTicket(saved)).hasValueSatisfying(ticket -> {
+            assertThat(ticket.getStatus()).isEqualTo(IntakeTicket.Status.CREATED);
+            assertThat(ticket.getOrderId()).isEqualTo(12345);
+        });
+        assertThat(countOrders()).isEqualTo(before + 1);
+        await(() -> size(JOURNAL) == 0 && countTicketRows() == 0);
+    }
+
+    private IntakeTicket awaitTicket(String ticketId, IntakeTicket.Status status) {
+        await(() -> orderIntakeService.getTicket(ticketId).map(ticket -> ticket.getStatus() == status).orElse(false));
+        return orderIntakeService.getTicket(ticketId).orElseThrow();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("Tiempo de espera agotado").isLessThan(deadline);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private Order order(int cantidad) {
+        Order order = new Order(null, new Customer(customer.getId(), null, null),
+                new ArrayList<>(List.of(new OrderItem(null, new Cafe(cafe.getId(), null, null, null), cantidad, null))));
+        order.setCreationDate(LocalDateTime.now());
+        return order;
+    }
+
+    private String orderJson(int cantidad) {
+        return "{\"customer\":{\"id\":" + customer.getId() + "},\"items\":[{\"cafe\":{\"id\":" + cafe.getId() + "},\"cantidad\":" + cantidad + "}]}";
+    }
+
+    private long countOrders() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Long.class);
+    }
+
+    private long countTicketRows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_intake_tickets", Long.class);
+    }
+
+    private static long size(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Path createTempDirectory() {
+        try {
+            return Files.createTempDirectory("order-intake");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
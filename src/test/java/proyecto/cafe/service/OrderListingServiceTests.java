@@ -0,0 +1,72 @@
+package proyecto.cafe.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import proyecto.cafe.dto.OrderListItem;
+
+import java.io.ByteArrayOutputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import(OrderListingService.class)
+class OrderListingServiceTests {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    @Autowired
+    private OrderListingService orderListingService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO cafes (id, nombre, descripcion, precio) VALUES (1, 'Cortado', 'Con leche', 1.80)");
+        jdbcTemplate.update("INSERT INTO customers (id, name, email) VALUES (1, 'Ana', 'ana@cafe.es')");
+        for (int id = 1; id <= 120; id++) {
+            jdbcTemplate.update("INSERT INTO orders (id, customer_id, total, creation_date) VALUES (?, 1, 3.60, ?)",
+                    id, Timestamp.valueOf(CREATED));
+            jdbcTemplate.update("INSERT INTO order_items (order_id, cafe_id, cantidad, precio) VALUES (?, 1, 2, 1.80)", id);
+        }
+    }
+
+    @Test
+    void pageSizeIsLimited() {
+        Page<OrderListItem> page = orderListingService.getPage(0, 1000);
+
+        assertThat(page.getSize()).isEqualTo(OrderService.MAX_PAGE_SIZE);
+        assertThat(page.getContent()).hasSize(OrderService.MAX_PAGE_SIZE);
+        assertThat(page.getTotalElements()).isEqualTo(120);
+    }
+
+    @Test
+    void writtenPageUsesObjectMapperDateFormat() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        orderListingService.write(orderListingService.getPage(0, 2), out);
+
+        JsonNode json = objectMapper.readTree(out.toByteArray());
+        JsonNode first = json.get("content").get(0);
+        // Las fechas con segundos a cero conservan los segundos, como al serializar la entidad
+        assertThat(first.get("creationDate").asText()).isEqualTo(objectMapper.convertValue(CREATED, String.class));
+        assertThat(first.get("creationDate").asText()).isEqualTo("2024-01-01T10:00:00");
+        assertThat(first.get("items").get(0).get("cantidad").asInt()).isEqualTo(2);
+        assertThat(json.get("size").asInt()).isEqualTo(2);
+        assertThat(json.get("totalElements").asLong()).isEqualTo(120);
+    }
+}
@@ -0,0 +1,118 @@
+package proyecto.cafe.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import proyecto.cafe.cache.CafeCache;
+import proyecto.cafe.dto.CursorPage;
+import proyecto.cafe.entity.Cafe;
+import proyecto.cafe.entity.Customer;
+import proyecto.cafe.entity.Order;
+import proyecto.cafe.entity.OrderItem;
+import proyecto.cafe.money.Money;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({OrderService.class, OrderArchiveService.class, CafeService.class, CafeCache.class, SalesSummaryService.class, SimpleMeterRegistry.class})
+class OrderServiceTests {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+    private Cafe cafe;
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        List<Cafe> cafes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            cafes.add(entityManager.persist(new Cafe(null, "Café " + i, "Descripción " + i, Money.ofCents(150 + i * 100))));
+        }
+        cafe = cafes.get(0);
+        for (int i = 0; i < 25; i++) {
+            customer = entityManager.persist(new Customer(null, "Cliente " + i, "cliente" + i + "@cafe.es"));
+            List<OrderItem> items = new ArrayList<>();
+            for (int j = 0; j < 3; j++) {
+                Cafe cafe = cafes.get((i + j) % cafes.size());
+                items.add(new OrderItem(null, cafe, j + 1, cafe.getPrecio()));
+            }
+            entityManager.persist(new Order(null, customer, items));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getOrdersAfterUsesConstantNumberOfStatementsPerPage() {
+        String cursor = orderService.getOrdersAfter(null, 10).getNextCursor();
+        statistics.clear();
+
+        CursorPage<Order> page = orderService.getOrdersAfter(cursor, 10);
+        page.getContent().forEach(order -> order.getItems().forEach(item -> item.getCafe().getNombre()));
+
+        assertThat(page.getContent()).hasSize(10);
+        assertThat(page.getNextCursor()).isNotNull();
+        // IDs por cursor y carga de órdenes con items y cafés, sin COUNT
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void getOrdersAfterLimitsPageSize() {
+        CursorPage<Order> page = orderService.getOrdersAfter(null, 1000);
+
+        assertThat(page.getSize()).isEqualTo(OrderService.MAX_PAGE_SIZE);
+        assertThat(page.getContent()).hasSize(25);
+    }
+
+    @Test
+    void crearOrderCountsCreatedAndRejectedOrders() {
+        orderService.crearOrder(order(customer.getId(), cafe.getId(), 1));
+        assertThatThrownBy(() -> orderService.crearOrder(order(999999, cafe.getId(), 1)))
+                .hasMessage("Cliente no encontrado");
+        assertThatThrownBy(() -> orderService.crearOrder(order(customer.getId(), 999999, 1)))
+                .hasMessage("Cafés no encontrados: [999999]");
+        assertThatThrownBy(() -> orderService.crearOrder(order(customer.getId(), cafe.getId(), 0)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("La cantidad debe ser mayor que cero");
+
+        assertThat(meterRegistry.counter("cafe.orders", "source", "api", "result", "created").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("cafe.orders", "source", "api", "result", "rejected").count()).isEqualTo(3);
+    }
+
+    private static Order order(int customerId, int cafeId, int cantidad) {
+        return new Order(null, new Customer(customerId, null, null),
+                new ArrayList<>(List.of(new OrderItem(null, new Cafe(cafeId, null, null, null), cantidad, null))));
+    }
+}
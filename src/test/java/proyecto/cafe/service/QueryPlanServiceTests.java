@@ -0,0 +1,33 @@
+package proyecto.cafe.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import proyecto.cafe.dto.QueryPlan;
+import proyecto.cafe.metrics.MetricsConfig;
+import proyecto.cafe.repository.OrderRepository;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({QueryPlanService.class, MetricsConfig.class, SimpleMeterRegistry.class})
+class QueryPlanServiceTests {
+
+    @Autowired
+    private QueryPlanService queryPlanService;
+
+    @Test
+    void orderQueriesDoNotScanFullTablesUnexpectedly() {
+        List<QueryPlan> plans = queryPlanService.explainOrderQueries();
+
+        assertThat(plans).extracting(QueryPlan::getMethod)
+                .containsAll(Arrays.stream(OrderRepository.class.getDeclaredMethods()).map(m -> m.getName()).toList());
+        assertThat(plans).allSatisfy(plan -> assertThat(plan.getSql()).isNotBlank());
+        assertThat(plans).filteredOn(QueryPlan::isFlagged).isEmpty();
+    }
+}
@@ -0,0 +1,111 @@
+package proyecto.cafe.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import proyecto.cafe.dto.SalesReportRow;
+import proyecto.cafe.entity.Cafe;
+import proyecto.cafe.entity.Customer;
+import proyecto.cafe.entity.Order;
+import proyecto.cafe.entity.OrderItem;
+import proyecto.cafe.money.Money;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(SalesSummaryService.class)
+class SalesSummaryServiceTests {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 1, 1);
+
+    @Autowired
+    private SalesSummaryService salesSummaryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM sales_summary");
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void concurrentOrdersForSameNewKeyAreBothCounted() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            LocalDate day = DAY.plusDays(i);
+            CountDownLatch firstApplied = new CountDownLatch(1);
+            // La primera transacción inserta la clave y tarda en confirmar mientras la segunda la actualiza
+            CompletableFuture<Void> first = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+                salesSummaryService.recordCreated(List.of(order(day, 1, 1, 2, 150)));
+                firstApplied.countDown();
+                sleep(200);
+            }));
+            assertThat(firstApplied.await(5, TimeUnit.SECONDS)).isTrue();
+            CompletableFuture<Void> second = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(
+                    status -> salesSummaryService.recordCreated(List.of(order(day, 1, 1, 3, 150)))));
+            CompletableFuture.allOf(first, second).get(10, TimeUnit.SECONDS);
+
+            List<SalesReportRow> rows = salesSummaryService.getSalesReport(day, day, "day");
+            assertThat(rows).hasSize(1);
+            assertThat(rows.get(0).getQuantity()).isEqualTo(5);
+            assertThat(rows.get(0).getRevenue()).isEqualTo(Money.ofCents(750));
+        }
+    }
+
+    @Test
+    void reportTotalsFollowCreatedAndDeletedOrders() {
+        Order deleted = order(DAY, 1, 2, 1, 300);
+        transactionTemplate.executeWithoutResult(status -> salesSummaryService.recordCreated(List.of(
+                order(DAY, 1, 1, 2, 150), order(DAY, 2, 1, 1, 300), deleted, order(DAY.plusDays(1), 1, 2, 4, 150))));
+        transactionTemplate.executeWithoutResult(status -> salesSummaryService.recordDeleted(List.of(deleted)));
+
+        List<SalesReportRow> byDay = salesSummaryService.getSalesReport(DAY, DAY.plusDays(1), "day");
+        assertThat(byDay).extracting(SalesReportRow::getDay).containsExactly(DAY, DAY.plusDays(1));
+        assertThat(byDay).extracting(SalesReportRow::getRevenue).containsExactly(Money.ofCents(600), Money.ofCents(600));
+        assertThat(byDay).extracting(SalesReportRow::getQuantity).containsExactly(3L, 4L);
+
+        List<SalesReportRow> byCafe = salesSummaryService.getSalesReport(DAY, DAY.plusDays(1), "cafe");
+        assertThat(byCafe).extracting(SalesReportRow::getCafeId).containsExactly(1, 2);
+        assertThat(byCafe).extracting(SalesReportRow::getRevenue).containsExactly(Money.ofCents(600), Money.ofCents(600));
+
+        List<SalesReportRow> byCustomer = salesSummaryService.getSalesReport(DAY, DAY, "customer");
+        assertThat(byCustomer).extracting(SalesReportRow::getCustomerId).containsExactly(1, 2);
+        assertThat(byCustomer).extracting(SalesReportRow::getRevenue).containsExactly(Money.ofCents(300), Money.ofCents(300));
+    }
+
+    private static Order order(LocalDate day, int customerId, int cafeId, int cantidad, long cents) {
+        Cafe cafe = new Cafe(cafeId, "Café " + cafeId, "Descripción", Money.ofCents(cents));
+        Order order = new Order(null, new Customer(customerId, "Cliente " + customerId, "cliente@cafe.es"),
+                List.of(new OrderItem(null, cafe, cantidad, cafe.getPrecio())));
+        order.setCreationDate(day.atTime(10, 0));
+        return order;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}